@@ -0,0 +1,86 @@
+package pl.wsb.fitnesstracker;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.wsb.FitnessTracker;
+import pl.wsb.fitnesstracker.training.api.ActivityType;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.internal.TrainingRepository;
+
+import java.util.List;
+
+/**
+ * Starts the application against a private in-memory H2 database seeded for benchmarks.
+ * <p>
+ * The database holds {@code rows} users with emails {@code user<n>@example.com}, {@code n} starting at 1,
+ * and one training per user.
+ */
+public final class BenchmarkDatabase {
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * Starts the application context and seeds its database.
+     *
+     * @param rows the number of users and of trainings to insert
+     * @param properties additional application properties, in {@code key=value} form
+     * @return the started context, to be closed by the caller
+     */
+    public static ConfigurableApplicationContext start(int rows, String... properties) {
+        return start(WebApplicationType.NONE, rows, properties);
+    }
+
+    /**
+     * Starts the application context with its web server on a random port and seeds its database.
+     *
+     * @param rows the number of users and of trainings to insert
+     * @param properties additional application properties, in {@code key=value} form
+     * @return the started context, to be closed by the caller
+     */
+    public static ConfigurableApplicationContext startServer(int rows, String... properties) {
+        return start(WebApplicationType.SERVLET, rows, properties);
+    }
+
+    private static ConfigurableApplicationContext start(WebApplicationType webApplicationType, int rows, String... properties) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(FitnessTracker.class)
+                .web(webApplicationType)
+                .profiles("benchmark")
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark" + rows,
+                        "server.port=0",
+                        "logging.level.root=WARN")
+                .properties(properties)
+                .run();
+        seed(context.getBean(JdbcTemplate.class), rows);
+        return context;
+    }
+
+    /**
+     * Loads all seeded trainings together with their users.
+     *
+     * @param context the context returned by {@link #start(int)}
+     * @return detached trainings, ordered as stored
+     */
+    public static List<Training> loadTrainings(ConfigurableApplicationContext context) {
+        return context.getBean(TrainingRepository.class).findAll();
+    }
+
+    private static void seed(JdbcTemplate jdbcTemplate, int rows) {
+        jdbcTemplate.update("""
+                INSERT INTO users (id, first_name, last_name, birthdate, email)
+                SELECT X, 'First' || X, 'Last' || X, DATE '1990-01-01', 'user' || X || '@example.com'
+                FROM SYSTEM_RANGE(1, ?)
+                """, rows);
+        jdbcTemplate.update("""
+                INSERT INTO trainings (id, user_id, start_time, end_time, activity_type, distance, average_speed)
+                SELECT id, id, TIMESTAMP '2024-01-01 08:00:00', TIMESTAMP '2024-01-01 09:00:00', MOD(id, ?), MOD(id, 20) + 0.5, 10.0
+                FROM users
+                """, ActivityType.values().length);
+        jdbcTemplate.execute("ALTER SEQUENCE users_seq RESTART WITH " + (rows + 1));
+        jdbcTemplate.execute("ALTER SEQUENCE trainings_seq RESTART WITH " + (rows + 1));
+    }
+
+}
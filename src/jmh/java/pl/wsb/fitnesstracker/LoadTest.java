@@ -0,0 +1,124 @@
+package pl.wsb.fitnesstracker;
+
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load test of the request execution mode of the web tier.
+ * Starts the application with its web server and a seeded database, sends requests to each endpoint
+ * from many concurrent clients and prints the latency percentiles and throughput of every endpoint.
+ * <p>
+ * Run once with platform threads and once with the {@code virtual-threads} profile, which needs Java 21,
+ * and compare the p99 latencies:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:java -Dexec.mainClass=pl.wsb.fitnesstracker.LoadTest
+ * mvn -Pbenchmark test-compile exec:java -Dexec.mainClass=pl.wsb.fitnesstracker.LoadTest -Dloadtest.profiles=virtual-threads
+ * </pre>
+ * Options, as system properties: {@code loadtest.concurrency} (default 400, above the 200 Tomcat platform threads),
+ * {@code loadtest.requests} per endpoint (default 20000) and {@code loadtest.rows} seeded users and trainings (default 1000).
+ */
+public final class LoadTest {
+
+    private static final List<String> ENDPOINTS = List.of("/v1/trainings", "/v1/users");
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String profiles = System.getProperty("loadtest.profiles", "");
+        int concurrency = Integer.getInteger("loadtest.concurrency", 400);
+        int requests = Integer.getInteger("loadtest.requests", 20_000);
+        int rows = Integer.getInteger("loadtest.rows", 1000);
+
+        try (ConfigurableApplicationContext context = BenchmarkDatabase.startServer(rows,
+                "spring.profiles.include=" + profiles)) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+            System.out.printf("Mode: %s, Java %s, %d concurrent clients, %d requests per endpoint%n",
+                    Threading.VIRTUAL.isActive(context.getEnvironment()) ? "virtual threads" : "platform threads",
+                    Runtime.version().feature(), concurrency, requests);
+
+            for (String endpoint : ENDPOINTS) {
+                URI uri = URI.create("http://localhost:" + port + endpoint);
+                run(client, uri, concurrency, requests / 10);
+                Result result = run(client, uri, concurrency, requests);
+                System.out.printf("%-15s p50 %7.1f ms  p99 %7.1f ms  max %7.1f ms  %8.0f req/s  %d errors%n",
+                        endpoint, result.percentile(50), result.percentile(99), result.percentile(100),
+                        result.throughput(), result.errors());
+            }
+        }
+    }
+
+    /**
+     * Sends the requests from the given number of concurrent clients, each sending its next request
+     * as soon as the previous one is answered.
+     */
+    private static Result run(HttpClient client, URI uri, int concurrency, int requests)
+            throws InterruptedException, ExecutionException {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET().build();
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        long started = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                futures.add(clients.submit(() -> {
+                    for (int n = next.getAndIncrement(); n < requests; n = next.getAndIncrement()) {
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (IOException e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies[n] = System.nanoTime() - sent;
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+        return new Result(latencies, System.nanoTime() - started, errors.get());
+    }
+
+    private record Result(long[] latencies, long elapsedNanos, int errors) {
+
+        double percentile(double percentile) {
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+
+        double throughput() {
+            return latencies.length * 1_000_000_000.0 / elapsedNanos;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package pl.wsb.fitnesstracker.training.api;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import pl.wsb.fitnesstracker.BenchmarkDatabase;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures calculating the calories burned during all seeded trainings, from entities and from columns,
+ * against the stream over entities with a {@code switch} the model replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CalorieModelBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int rows;
+
+    private final CalorieModel calorieModel = CalorieModel.DEFAULT;
+
+    private ConfigurableApplicationContext context;
+    private List<Training> trainings;
+    private byte[] activityTypes;
+    private double[] distances;
+    private int[] calories;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkDatabase.start(rows);
+        trainings = BenchmarkDatabase.loadTrainings(context);
+        activityTypes = new byte[trainings.size()];
+        distances = new double[trainings.size()];
+        calories = new int[trainings.size()];
+        for (int i = 0; i < trainings.size(); i++) {
+            activityTypes[i] = (byte) trainings.get(i).getActivityType().ordinal();
+            distances[i] = trainings.get(i).getDistance();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int streamWithSwitch() {
+        return trainings.stream()
+                .mapToInt(training -> switch (training.getActivityType()) {
+                    case RUNNING -> (int) (training.getDistance() * 100);
+                    case CYCLING -> (int) (training.getDistance() * 50);
+                    case WALKING -> (int) (training.getDistance() * 60);
+                    case TENNIS -> (int) (training.getDistance() * 80);
+                    default -> (int) (training.getDistance() * 70);
+                })
+                .sum();
+    }
+
+    @Benchmark
+    public int totalCaloriesOfEntities() {
+        return calorieModel.totalCalories(trainings);
+    }
+
+    @Benchmark
+    public long totalCaloriesOfColumns() {
+        return calorieModel.totalCalories(activityTypes, distances, 0, activityTypes.length);
+    }
+
+    @Benchmark
+    public int[] caloriesOfColumns() {
+        calorieModel.caloriesBurned(activityTypes, distances, calories, 0, activityTypes.length);
+        return calories;
+    }
+
+}
@@ -0,0 +1,46 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import pl.wsb.fitnesstracker.BenchmarkDatabase;
+import pl.wsb.fitnesstracker.training.api.Training;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building the HTML body of the monthly summary email listing all seeded trainings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class MonthlyTrainingSummarySchedulerBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private MonthlyTrainingSummaryScheduler scheduler;
+    private List<Training> trainings;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkDatabase.start(rows);
+        scheduler = context.getBean(MonthlyTrainingSummaryScheduler.class);
+        trainings = BenchmarkDatabase.loadTrainings(context);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String buildHtmlEmail() {
+        return scheduler.buildHtmlEmail("John", trainings);
+    }
+
+}
@@ -0,0 +1,49 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import pl.wsb.fitnesstracker.BenchmarkDatabase;
+import pl.wsb.fitnesstracker.training.api.Training;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures mapping all seeded trainings to {@link UserTrainingRes}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TrainingMapperBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private TrainingMapper trainingMapper;
+    private List<Training> trainings;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkDatabase.start(rows);
+        trainingMapper = context.getBean(TrainingMapper.class);
+        trainings = BenchmarkDatabase.loadTrainings(context);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void toUserTrainingRes(Blackhole blackhole) {
+        for (Training training : trainings) {
+            blackhole.consume(trainingMapper.toUserTrainingRes(training));
+        }
+    }
+
+}
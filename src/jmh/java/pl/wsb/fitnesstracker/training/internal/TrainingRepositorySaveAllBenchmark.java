@@ -0,0 +1,68 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.wsb.fitnesstracker.BenchmarkDatabase;
+import pl.wsb.fitnesstracker.training.api.ActivityType;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.internal.UserRepository;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures saving a bulk of new trainings with {@link TrainingRepository#saveAll(Iterable)} in one transaction,
+ * with JDBC batching disabled ({@code batchSize} 1) and enabled.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TrainingRepositorySaveAllBenchmark {
+
+    private static final int USERS = 1000;
+
+    @Param({"1000", "10000"})
+    private int trainings;
+
+    @Param({"1", "50"})
+    private int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private TrainingRepository trainingRepository;
+    private TransactionTemplate transactionTemplate;
+    private List<User> users;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkDatabase.start(USERS, "spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize);
+        trainingRepository = context.getBean(TrainingRepository.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        users = context.getBean(UserRepository.class).findAll();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Training> saveAll() {
+        return transactionTemplate.execute(status -> {
+            List<Training> batch = new ArrayList<>(trainings);
+            for (int i = 0; i < trainings; i++) {
+                batch.add(new Training(users.get(i % USERS), new Date(0), new Date(3_600_000),
+                        ActivityType.RUNNING, 10.0, 10.0));
+            }
+            return trainingRepository.saveAll(batch);
+        });
+    }
+
+}
@@ -0,0 +1,55 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import pl.wsb.fitnesstracker.BenchmarkDatabase;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures looking users up by their full email and by a fragment of it, for a random seeded user.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class UserRepositoryBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkDatabase.start(rows);
+        userRepository = context.getBean(UserRepository.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    private String randomUser() {
+        return "user" + ThreadLocalRandom.current().nextInt(1, rows + 1);
+    }
+
+    @Benchmark
+    public Optional<User> findByEmail() {
+        return userRepository.findByEmail(randomUser() + "@example.com");
+    }
+
+    @Benchmark
+    public List<User> findByPartOfEmail() {
+        return userRepository.findByPartOfEmail(randomUser() + "@");
+    }
+
+}
@@ -0,0 +1,34 @@
+package pl.wsb.fitnesstracker;
+
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Thread factories of the application's own worker pools.
+ * When virtual threads are enabled with {@code spring.threads.virtual.enabled}, as in the {@code virtual-threads} profile,
+ * and the application runs on Java 21 or later, workers are virtual threads, like the request threads of Tomcat
+ * and the threads of {@code @Scheduled} tasks configured by Spring Boot. Otherwise they are platform threads.
+ */
+public final class WorkerThreads {
+
+    private WorkerThreads() {
+    }
+
+    /**
+     * Creates a factory of worker threads.
+     *
+     * @param environment the environment deciding whether virtual threads are enabled
+     * @param namePrefix the prefix of the thread names
+     * @return the thread factory
+     */
+    public static ThreadFactory factory(Environment environment, String namePrefix) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return new VirtualThreadTaskExecutor(namePrefix).getVirtualThreadFactory();
+        }
+        return new CustomizableThreadFactory(namePrefix);
+    }
+}
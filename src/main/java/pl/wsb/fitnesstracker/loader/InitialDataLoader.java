@@ -11,6 +11,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 import pl.wsb.fitnesstracker.statistics.api.Statistics;
 import pl.wsb.fitnesstracker.training.api.ActivityType;
+import pl.wsb.fitnesstracker.training.api.CalorieModel;
 import pl.wsb.fitnesstracker.training.api.Training;
 import pl.wsb.fitnesstracker.user.api.User;
 
@@ -39,6 +40,8 @@ class InitialDataLoader {
 
     private final JpaRepository<Statistics, Long> statisticsRepository;
 
+    private final CalorieModel calorieModel;
+
     @EventListener
     @Transactional
     @SuppressWarnings({"squid:S1854", "squid:S1481", "squid:S1192", "unused"})
@@ -181,7 +184,7 @@ class InitialDataLoader {
             double totalDistance = userTrainings.stream()
                     .mapToDouble(Training::getDistance)
                     .sum();
-            int totalCalories = calculateCaloriesForTrainings(userTrainings);
+            int totalCalories = calorieModel.totalCalories(userTrainings);
 
             statistics.setTotalTrainings(totalTrainings);
             statistics.setTotalDistance(totalDistance);
@@ -194,26 +197,6 @@ class InitialDataLoader {
         return statisticsData;
     }
 
-    private int calculateCaloriesForTrainings(List<Training> trainings) {
-        return trainings.stream()
-                .mapToInt(training -> {
-                    double distance = training.getDistance();
-                    switch (training.getActivityType()) {
-                        case RUNNING:
-                            return (int) (distance * 100);
-                        case CYCLING:
-                            return (int) (distance * 50);
-                        case WALKING:
-                            return (int) (distance * 60);
-                        case TENNIS:
-                            return (int) (distance * 80);
-                        default:
-                            return (int) (distance * 70);
-                    }
-                })
-                .sum();
-    }
-
     private void verifyDependenciesAutowired() {
         if (isNull(userRepository)) {
             throw new IllegalStateException("Initial data loader was not autowired correctly " + this);
@@ -0,0 +1,248 @@
+package pl.wsb.fitnesstracker.loader;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import pl.wsb.fitnesstracker.training.api.ActivityType;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Synthetic data generator for performance environments. If the application is run with `generateData` profile,
+ * then on application startup it will fill the database with the configured number of users and their trainings.
+ * <p>
+ * Users are split into chunks inserted in parallel, each with plain JDBC batches. IDs are reserved
+ * in blocks from the entity sequences, so there is one sequence call per block instead of one round trip per row.
+ * Statistics are not generated, they are calculated the first time a user's trainings change
+ * or through the statistics recalculation endpoint.
+ */
+@Component
+@Profile("generateData")
+@EnableConfigurationProperties(SyntheticDataProperties.class)
+@Slf4j
+class SyntheticDataGenerator {
+
+    private static final String INSERT_USER =
+            "INSERT INTO users (id, first_name, last_name, birthdate, email) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_TRAINING =
+            "INSERT INTO trainings (id, user_id, start_time, end_time, activity_type, distance, average_speed) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String USERS_SEQUENCE = "users_seq";
+    private static final String TRAININGS_SEQUENCE = "trainings_seq";
+    /**
+     * Allocation size of the entity ID sequences.
+     */
+    private static final int ID_BLOCK_SIZE = 50;
+
+    private static final String[] FIRST_NAMES = {"Emma", "Ethan", "Olivia", "Daniel", "Sophia", "Liam", "Ava", "Noah", "Grace", "Oliver"};
+    private static final String[] LAST_NAMES = {"Johnson", "Taylor", "Davis", "Thomas", "Baker", "Jones", "Williams", "Miller", "Anderson", "Swift"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SyntheticDataProperties properties;
+
+    SyntheticDataGenerator(JdbcTemplate jdbcTemplate, SyntheticDataProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+    }
+
+    @EventListener
+    public void generateData(ContextRefreshedEvent event) {
+        generate();
+    }
+
+    /**
+     * Generates the configured users and trainings.
+     */
+    void generate() {
+        int users = properties.getUsers();
+        int chunkSize = properties.getBatchSize();
+        log.info("Generating {} users with {} trainings each using {} threads",
+                users, properties.getTrainingsPerUser(), properties.getThreads());
+
+        long started = System.nanoTime();
+        AtomicLong insertedRows = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(properties.getThreads(),
+                new CustomizableThreadFactory("data-generator-"));
+        try {
+            List<Future<?>> chunks = new ArrayList<>();
+            for (int first = 0; first < users; first += chunkSize) {
+                int chunkFirst = first;
+                int chunkUsers = Math.min(chunkSize, users - first);
+                chunks.add(executor.submit(() -> {
+                    insertedRows.addAndGet(generateChunk(chunkFirst, chunkUsers));
+                    logProgress(insertedRows.get(), started);
+                }));
+            }
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating data", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Generating data failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        log.info("Finished generating data");
+        logProgress(insertedRows.get(), started);
+    }
+
+    /**
+     * Inserts one chunk of users with their trainings.
+     *
+     * @param first index of the first user of the chunk
+     * @param count number of users in the chunk
+     * @return number of inserted rows
+     */
+    private long generateChunk(int first, int count) {
+        SplittableRandom random = new SplittableRandom(properties.getSeed() + first);
+        List<Long> userIds = insertUsers(first, count, random);
+
+        LongSupplier trainingIds = idBlocks(TRAININGS_SEQUENCE);
+        List<Object[]> trainings = new ArrayList<>(properties.getBatchSize());
+        long insertedTrainings = 0;
+        for (Long userId : userIds) {
+            for (int i = 0; i < properties.getTrainingsPerUser(); i++) {
+                trainings.add(generateTraining(trainingIds.getAsLong(), userId, random));
+                if (trainings.size() == properties.getBatchSize()) {
+                    insertedTrainings += insertTrainings(trainings);
+                }
+            }
+        }
+        insertedTrainings += insertTrainings(trainings);
+        return userIds.size() + insertedTrainings;
+    }
+
+    private List<Long> insertUsers(int first, int count, SplittableRandom random) {
+        LongSupplier ids = idBlocks(USERS_SEQUENCE);
+        List<Long> userIds = new ArrayList<>(count);
+        List<Object[]> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long id = ids.getAsLong();
+            String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            LocalDate birthdate = LocalDate.now().minusYears(random.nextInt(16, 80)).minusDays(random.nextInt(365));
+            String email = "%s.%s.%d@generated.example.com".formatted(firstName, lastName, first + i).toLowerCase();
+            users.add(new Object[]{id, firstName, lastName, Date.valueOf(birthdate), email});
+            userIds.add(id);
+        }
+        jdbcTemplate.batchUpdate(INSERT_USER, users);
+        return userIds;
+    }
+
+    /**
+     * Hands out IDs from blocks reserved with a single sequence call each.
+     * Follows the pooled-lo optimizer used by the entities: value {@code n} of the sequence reserves
+     * IDs from {@code n} to {@code n + ID_BLOCK_SIZE - 1}, so generated rows never collide with rows saved by the application.
+     */
+    private LongSupplier idBlocks(String sequence) {
+        long[] block = {0, ID_BLOCK_SIZE};
+        return () -> {
+            if (block[1] == ID_BLOCK_SIZE) {
+                block[0] = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR " + sequence, Long.class);
+                block[1] = 0;
+            }
+            return block[0] + block[1]++;
+        };
+    }
+
+    private int insertTrainings(List<Object[]> trainings) {
+        if (trainings.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(INSERT_TRAINING, trainings);
+        int inserted = trainings.size();
+        trainings.clear();
+        return inserted;
+    }
+
+    /**
+     * Generates a training of the past year, with distance and speed typical for its activity type.
+     */
+    private static Object[] generateTraining(long id, Long userId, SplittableRandom random) {
+        ActivityType activityType = randomActivityType(random);
+        double distance;
+        double averageSpeed;
+        switch (activityType) {
+            case RUNNING -> {
+                distance = gaussian(random, 8, 3, 1);
+                averageSpeed = gaussian(random, 10, 2, 5);
+            }
+            case CYCLING -> {
+                distance = gaussian(random, 25, 10, 3);
+                averageSpeed = gaussian(random, 22, 4, 10);
+            }
+            case WALKING -> {
+                distance = gaussian(random, 4, 1.5, 0.5);
+                averageSpeed = gaussian(random, 5, 0.8, 3);
+            }
+            case SWIMMING -> {
+                distance = gaussian(random, 1.5, 0.5, 0.2);
+                averageSpeed = gaussian(random, 2.5, 0.5, 1);
+            }
+            default -> {
+                distance = gaussian(random, 3, 1, 0.5);
+                averageSpeed = gaussian(random, 6, 1, 2);
+            }
+        }
+
+        Instant startTime = Instant.now()
+                .truncatedTo(ChronoUnit.MINUTES)
+                .minus(Duration.ofMinutes(random.nextLong(Duration.ofDays(365).toMinutes())));
+        Instant endTime = startTime.plus(Duration.ofSeconds((long) (distance / averageSpeed * 3600)));
+        return new Object[]{id, userId, Timestamp.from(startTime), Timestamp.from(endTime), activityType.ordinal(),
+                round(distance), round(averageSpeed)};
+    }
+
+    /**
+     * Picks an activity type, running, cycling and walking being much more popular than swimming and tennis.
+     */
+    private static ActivityType randomActivityType(SplittableRandom random) {
+        int percent = random.nextInt(100);
+        if (percent < 35) {
+            return ActivityType.RUNNING;
+        } else if (percent < 60) {
+            return ActivityType.CYCLING;
+        } else if (percent < 85) {
+            return ActivityType.WALKING;
+        } else if (percent < 95) {
+            return ActivityType.SWIMMING;
+        }
+        return ActivityType.TENNIS;
+    }
+
+    private static double gaussian(SplittableRandom random, double mean, double deviation, double min) {
+        return Math.max(min, mean + random.nextGaussian() * deviation);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private static void logProgress(long rows, long started) {
+        double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+        log.info("Inserted {} rows in {} s ({} rows/s)",
+                rows, "%.1f".formatted(seconds), Math.round(rows / Math.max(seconds, 0.001)));
+    }
+
+}
@@ -0,0 +1,34 @@
+package pl.wsb.fitnesstracker.loader;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration of the {@link SyntheticDataGenerator}.
+ */
+@ConfigurationProperties(prefix = "generator")
+@Getter
+@Setter
+class SyntheticDataProperties {
+    /**
+     * Number of users to generate.
+     */
+    private int users = 10_000;
+    /**
+     * Number of trainings generated for every user.
+     */
+    private int trainingsPerUser = 20;
+    /**
+     * Number of rows sent to the database in a single JDBC batch.
+     */
+    private int batchSize = 1000;
+    /**
+     * Number of threads inserting chunks of users in parallel.
+     */
+    private int threads = 4;
+    /**
+     * Seed of the random data, so the same configuration always generates the same data set.
+     */
+    private long seed = 42;
+}
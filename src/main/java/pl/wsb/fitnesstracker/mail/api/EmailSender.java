@@ -1,5 +1,7 @@
 package pl.wsb.fitnesstracker.mail.api;
 
+import java.util.List;
+
 /**
  * API interface for component responsible for sending emails.
  */
@@ -12,4 +14,16 @@ public interface EmailSender {
      */
     void send(EmailDto email);
 
+    /**
+     * Sends the email messages and returns once all of them were delivered to the mail server.
+     * Unlike {@link #send(EmailDto)}, which may only queue the message, a normal return guarantees the delivery,
+     * so callers can record the messages as sent.
+     *
+     * @param emails information on emails to be sent
+     * @throws RuntimeException if any of the emails could not be delivered
+     */
+    default void sendAndWait(List<EmailDto> emails) {
+        emails.forEach(this::send);
+    }
+
 }
@@ -1,37 +1,25 @@
 package pl.wsb.fitnesstracker.mail.api.impl;
 
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
-import org.springframework.mail.javamail.MimeMessageHelper;
-import pl.wsb.fitnesstracker.mail.internal.MailProperties;
-import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 import pl.wsb.fitnesstracker.mail.api.EmailDto;
 import pl.wsb.fitnesstracker.mail.api.EmailSender;
 
+/**
+ * {@link EmailSender} sending each email synchronously in its own SMTP transaction.
+ * Used directly when the mail queue is disabled.
+ */
 @Service
 @RequiredArgsConstructor
 public class MailjetEmailSender implements EmailSender {
 
     private final JavaMailSender javaMailSender;
-    private final MailProperties mailProperties;
+    private final MimeMessageFactory mimeMessageFactory;
 
     @Override
     public void send(EmailDto email) {
-        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
-        try {
-            MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
-            helper.setFrom(mailProperties.getFrom());
-            helper.setTo(email.toAddress());
-            helper.setSubject(email.subject());
-            helper.setText(email.content(), true);
-            javaMailSender.send(mimeMessage);
-        } catch (MessagingException e) {
-            throw new IllegalStateException("Email didn't receive ", e);
-        }
+        javaMailSender.send(mimeMessageFactory.create(email));
     }
 
 }
-
@@ -0,0 +1,43 @@
+package pl.wsb.fitnesstracker.mail.api.impl;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+import pl.wsb.fitnesstracker.mail.internal.MailProperties;
+
+/**
+ * Builds {@link MimeMessage} instances from {@link EmailDto}, shared by the email sender implementations.
+ */
+@Component
+@RequiredArgsConstructor
+class MimeMessageFactory {
+
+    private final JavaMailSender javaMailSender;
+    private final MailProperties mailProperties;
+
+    /**
+     * Creates a message ready to be sent by the {@link JavaMailSender}.
+     *
+     * @param email information on email to be sent
+     * @return the message
+     * @throws IllegalStateException if the message could not be built
+     */
+    MimeMessage create(EmailDto email) {
+        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
+        try {
+            MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
+            helper.setFrom(mailProperties.getFrom());
+            helper.setTo(email.toAddress());
+            helper.setSubject(email.subject());
+            helper.setText(email.content(), email.isHtml());
+            return mimeMessage;
+        } catch (MessagingException e) {
+            throw new IllegalStateException("Email didn't receive ", e);
+        }
+    }
+
+}
@@ -0,0 +1,292 @@
+package pl.wsb.fitnesstracker.mail.api.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Service;
+import pl.wsb.fitnesstracker.WorkerThreads;
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+import pl.wsb.fitnesstracker.mail.api.EmailSender;
+import pl.wsb.fitnesstracker.mail.internal.MailProperties;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link EmailSender} that puts emails on a bounded in-memory queue and returns immediately.
+ * Background workers drain the queue in batches and send each batch over a single SMTP connection
+ * with {@link JavaMailSender#send(MimeMessage...)}, retrying failed messages with exponential backoff.
+ * {@link #sendAndWait(List)} queues the emails the same way, waiting for free space instead of rejecting them,
+ * and waits until the workers delivered or dropped them.
+ * <p>
+ * Exposes the {@code mail.queue.size} gauge, the {@code mail.send.latency} timer, the {@code mail.send.batch.size}
+ * summary and the {@code mail.send.failures} counter.
+ * The workers are virtual threads when they are enabled, see {@link WorkerThreads}.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(prefix = "mail.queue", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class QueuedEmailSender implements EmailSender {
+
+    private static final long POLL_TIMEOUT_MILLIS = 200;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private final JavaMailSender javaMailSender;
+    private final MimeMessageFactory mimeMessageFactory;
+    private final MailProperties.Queue properties;
+    private final BlockingQueue<QueuedEmail> queue;
+    private final Timer sendLatency;
+    private final DistributionSummary batchSize;
+    private final Counter failures;
+    private final ThreadFactory threadFactory;
+
+    private ExecutorService workers;
+    private volatile boolean running;
+
+    QueuedEmailSender(JavaMailSender javaMailSender,
+                      MimeMessageFactory mimeMessageFactory,
+                      MailProperties mailProperties,
+                      MeterRegistry meterRegistry,
+                      Environment environment) {
+        this.javaMailSender = javaMailSender;
+        this.mimeMessageFactory = mimeMessageFactory;
+        this.properties = mailProperties.getQueue();
+        this.queue = new ArrayBlockingQueue<>(properties.getCapacity());
+        Gauge.builder("mail.queue.size", queue, BlockingQueue::size)
+                .description("Number of emails waiting to be sent")
+                .register(meterRegistry);
+        this.sendLatency = Timer.builder("mail.send.latency")
+                .description("Time of sending a batch of emails")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("mail.send.batch.size")
+                .description("Number of emails sent in a single batch")
+                .register(meterRegistry);
+        this.failures = Counter.builder("mail.send.failures")
+                .description("Number of emails dropped after exhausting all send attempts")
+                .register(meterRegistry);
+        this.threadFactory = WorkerThreads.factory(environment, "mail-sender-");
+    }
+
+    /**
+     * Starts the worker threads draining the queue.
+     */
+    @PostConstruct
+    void start() {
+        running = true;
+        workers = Executors.newFixedThreadPool(properties.getWorkers(), threadFactory);
+        for (int i = 0; i < properties.getWorkers(); i++) {
+            workers.execute(this::drainQueue);
+        }
+    }
+
+    /**
+     * Stops accepting new emails and waits for the workers to send the already queued ones.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        workers.shutdown();
+        if (!workers.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            log.warn("Mail workers did not finish in time, {} emails were not sent", queue.size());
+            workers.shutdownNow();
+        }
+        List<QueuedEmail> unsent = new ArrayList<>();
+        queue.drainTo(unsent);
+        fail(unsent, new IllegalStateException("Mail queue was stopped before the email was sent"));
+    }
+
+    /**
+     * Queues the email to be sent by a background worker.
+     *
+     * @param email information on email to be sent
+     * @throws IllegalStateException if the sender is stopped or the queue stays full for longer than the offer timeout
+     */
+    @Override
+    public void send(EmailDto email) {
+        enqueue(email);
+    }
+
+    /**
+     * Queues the emails to be sent by the background workers and waits until all of them are delivered.
+     * Waits for free space while the queue is full instead of rejecting the emails after the offer timeout,
+     * so callers that wait for delivery are paced by the workers rather than failing halfway.
+     * When the call fails before all emails are queued or while waiting, its emails still in the queue are withdrawn;
+     * only those already taken by a worker may still be sent, and delivered twice by a caller retrying the whole list.
+     *
+     * @param emails information on emails to be sent
+     * @throws IllegalStateException if the sender is stopped, the caller is interrupted or any email was dropped by the workers
+     */
+    @Override
+    public void sendAndWait(List<EmailDto> emails) {
+        List<QueuedEmail> queued = new ArrayList<>(emails.size());
+        try {
+            for (EmailDto email : emails) {
+                queued.add(put(email));
+            }
+            CompletableFuture.allOf(queued.stream().map(QueuedEmail::delivery).toArray(CompletableFuture[]::new)).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Not all of " + emails.size() + " emails were delivered", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            IllegalStateException failure = new IllegalStateException("Interrupted while sending " + emails.size() + " emails", e);
+            withdraw(queued, failure);
+            throw failure;
+        } catch (IllegalStateException e) {
+            withdraw(queued, e);
+            throw e;
+        }
+    }
+
+    private void enqueue(EmailDto email) {
+        if (!running) {
+            throw new IllegalStateException("Mail queue is not running");
+        }
+        try {
+            if (!queue.offer(new QueuedEmail(email, new CompletableFuture<>()),
+                    properties.getOfferTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Mail queue is full, email to " + email.toAddress() + " was rejected");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing email to " + email.toAddress(), e);
+        }
+    }
+
+    /**
+     * Queues the email, waiting as long as the queue is full unless the sender is stopped meanwhile.
+     */
+    private QueuedEmail put(EmailDto email) throws InterruptedException {
+        QueuedEmail queued = new QueuedEmail(email, new CompletableFuture<>());
+        do {
+            if (!running) {
+                throw new IllegalStateException("Mail queue is not running");
+            }
+        } while (!queue.offer(queued, POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+        // the sender may have been stopped after its workers drained the queue for the last time
+        if (!running && queue.remove(queued)) {
+            throw new IllegalStateException("Mail queue is not running");
+        }
+        return queued;
+    }
+
+    /**
+     * Removes the emails not taken by a worker yet from the queue, failing their deliveries.
+     */
+    private void withdraw(List<QueuedEmail> emails, Throwable cause) {
+        fail(emails.stream().filter(queue::remove).toList(), cause);
+    }
+
+    private void drainQueue() {
+        while (running || !queue.isEmpty()) {
+            try {
+                QueuedEmail first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<QueuedEmail> batch = new ArrayList<>(properties.getBatchSize());
+                batch.add(first);
+                queue.drainTo(batch, properties.getBatchSize() - 1);
+                sendBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Unexpected error while sending queued emails", e);
+            }
+        }
+    }
+
+    private void sendBatch(List<QueuedEmail> batch) throws InterruptedException {
+        // MimeMessage keeps identity equality, so the map pairs each built message with its queued email
+        Map<MimeMessage, QueuedEmail> pending = new LinkedHashMap<>();
+        for (QueuedEmail queued : batch) {
+            try {
+                pending.put(mimeMessageFactory.create(queued.email()), queued);
+            } catch (IllegalStateException e) {
+                log.error("Dropping email to {} which could not be built", queued.email().toAddress(), e);
+                failures.increment();
+                queued.delivery().completeExceptionally(e);
+            }
+        }
+
+        long backoffMillis = properties.getInitialBackoff().toMillis();
+        for (int attempt = 1; !pending.isEmpty(); attempt++) {
+            batchSize.record(pending.size());
+            Timer.Sample sample = Timer.start();
+            MailException failure = null;
+            try {
+                javaMailSender.send(pending.keySet().toArray(MimeMessage[]::new));
+                pending.values().forEach(queued -> queued.delivery().complete(null));
+                pending.clear();
+            } catch (MailSendException e) {
+                failure = e;
+                if (!e.getFailedMessages().isEmpty()) {
+                    pending.entrySet().removeIf(entry -> {
+                        if (e.getFailedMessages().containsKey(entry.getKey())) {
+                            return false;
+                        }
+                        entry.getValue().delivery().complete(null);
+                        return true;
+                    });
+                }
+                log.warn("Attempt {} failed to send {} emails", attempt, pending.size(), e);
+            } catch (MailException e) {
+                failure = e;
+                log.warn("Attempt {} failed to send {} emails", attempt, pending.size(), e);
+            } finally {
+                sample.stop(sendLatency);
+            }
+
+            if (!pending.isEmpty()) {
+                if (attempt >= properties.getMaxAttempts()) {
+                    log.error("Dropping {} emails after {} failed attempts", pending.size(), attempt);
+                    failures.increment(pending.size());
+                    fail(pending.values(), failure);
+                    return;
+                }
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException e) {
+                    fail(pending.values(), e);
+                    throw e;
+                }
+                backoffMillis *= 2;
+            }
+        }
+    }
+
+    private static void fail(Collection<QueuedEmail> emails, Throwable cause) {
+        emails.forEach(queued -> queued.delivery().completeExceptionally(cause));
+    }
+
+    /**
+     * Email waiting in the queue, with the future completed once it is delivered or dropped.
+     */
+    private record QueuedEmail(EmailDto email, CompletableFuture<Void> delivery) {
+    }
+
+}
@@ -6,6 +6,8 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.mail.javamail.JavaMailSender;
 import pl.wsb.fitnesstracker.mail.api.EmailSender;
 
+import java.time.Duration;
+
 /**
  * Configuration of the {@link EmailSender} (additional to the Spring mail configuration for {@link JavaMailSender} bean autoconfiguration).
  */
@@ -14,5 +16,41 @@ import pl.wsb.fitnesstracker.mail.api.EmailSender;
 @Setter
 public class MailProperties {
     private String from;
-}
+    private Queue queue = new Queue();
 
+    /**
+     * Configuration of the asynchronous outbound mail queue.
+     */
+    @Getter
+    @Setter
+    public static class Queue {
+        /**
+         * Whether emails are queued and sent in batches by background workers instead of being sent synchronously.
+         */
+        private boolean enabled = true;
+        /**
+         * Maximum number of emails waiting in the queue.
+         */
+        private int capacity = 1000;
+        /**
+         * Maximum time a caller waits for free space in a full queue.
+         */
+        private Duration offerTimeout = Duration.ofSeconds(5);
+        /**
+         * Number of worker threads sending emails.
+         */
+        private int workers = 2;
+        /**
+         * Maximum number of emails sent over a single SMTP connection.
+         */
+        private int batchSize = 50;
+        /**
+         * Maximum number of send attempts for a batch.
+         */
+        private int maxAttempts = 3;
+        /**
+         * Delay before the first retry, doubled on each subsequent retry.
+         */
+        private Duration initialBackoff = Duration.ofSeconds(1);
+    }
+}
@@ -0,0 +1,134 @@
+package pl.wsb.fitnesstracker.monitoring.internal;
+
+import org.hibernate.Interceptor;
+import org.hibernate.SessionEventListener;
+import org.hibernate.type.Type;
+
+/**
+ * Counts the work Hibernate does for the current HTTP request: executed JDBC statements, entity loads and flushes.
+ * The counters are bound to the request thread by {@link HibernateStatisticsFilter} and fed by a {@link SessionListener}
+ * created by Hibernate for every session and by the {@link EntityLoadInterceptor}.
+ * Work done on other threads, e.g. by background jobs, is not counted.
+ */
+final class HibernateRequestStatistics {
+
+    private static final ThreadLocal<HibernateRequestStatistics> CURRENT = new ThreadLocal<>();
+
+    private final long slowStatementNanos;
+    private int statements;
+    private int slowStatements;
+    private long statementNanos;
+    private int entityLoads;
+    private int flushes;
+
+    private HibernateRequestStatistics(long slowStatementNanos) {
+        this.slowStatementNanos = slowStatementNanos;
+    }
+
+    /**
+     * Binds new counters to the current thread.
+     *
+     * @param slowStatementNanos execution time above which a statement is counted as slow, 0 to not count slow statements
+     * @return the bound counters
+     */
+    static HibernateRequestStatistics start(long slowStatementNanos) {
+        HibernateRequestStatistics statistics = new HibernateRequestStatistics(slowStatementNanos);
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    /**
+     * Unbinds the counters from the current thread.
+     */
+    static void stop() {
+        CURRENT.remove();
+    }
+
+    int getStatements() {
+        return statements;
+    }
+
+    int getSlowStatements() {
+        return slowStatements;
+    }
+
+    long getStatementNanos() {
+        return statementNanos;
+    }
+
+    int getEntityLoads() {
+        return entityLoads;
+    }
+
+    int getFlushes() {
+        return flushes;
+    }
+
+    private void statementExecuted(long nanos) {
+        statements++;
+        statementNanos += nanos;
+        if (slowStatementNanos > 0 && nanos > slowStatementNanos) {
+            slowStatements++;
+        }
+    }
+
+    /**
+     * Session listener counting statements and flushes of the session towards the counters of the current thread.
+     * Registered for every session through the {@code hibernate.session.events.auto} setting,
+     * so it is instantiated by Hibernate and must stay public with a no-argument constructor.
+     */
+    public static class SessionListener implements SessionEventListener {
+
+        private long executionStart;
+
+        @Override
+        public void jdbcExecuteStatementStart() {
+            executionStart = System.nanoTime();
+        }
+
+        @Override
+        public void jdbcExecuteStatementEnd() {
+            executionEnd();
+        }
+
+        @Override
+        public void jdbcExecuteBatchStart() {
+            executionStart = System.nanoTime();
+        }
+
+        @Override
+        public void jdbcExecuteBatchEnd() {
+            executionEnd();
+        }
+
+        @Override
+        public void flushEnd(int numberOfEntities, int numberOfCollections) {
+            HibernateRequestStatistics statistics = CURRENT.get();
+            if (statistics != null) {
+                statistics.flushes++;
+            }
+        }
+
+        private void executionEnd() {
+            HibernateRequestStatistics statistics = CURRENT.get();
+            if (statistics != null) {
+                statistics.statementExecuted(System.nanoTime() - executionStart);
+            }
+        }
+    }
+
+    /**
+     * Interceptor counting loaded entities towards the counters of the current thread.
+     */
+    static class EntityLoadInterceptor implements Interceptor {
+
+        @Override
+        public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+            HibernateRequestStatistics statistics = CURRENT.get();
+            if (statistics != null) {
+                statistics.entityLoads++;
+            }
+            return false;
+        }
+    }
+}
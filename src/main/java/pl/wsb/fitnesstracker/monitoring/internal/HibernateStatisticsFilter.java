@@ -0,0 +1,95 @@
+package pl.wsb.fitnesstracker.monitoring.internal;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the work Hibernate did for every HTTP request, tagged with the request method and URI pattern:
+ * the {@code hibernate.request.statements}, {@code hibernate.request.entity.loads} and {@code hibernate.request.flushes}
+ * summaries, the {@code hibernate.request.statements.time} timer of JDBC execution time
+ * and the {@code hibernate.request.statements.slow} counter of statements slower than
+ * {@code spring.jpa.properties.hibernate.log_slow_query}, the threshold Hibernate logs slow queries above.
+ */
+@Slf4j
+class HibernateStatisticsFilter extends OncePerRequestFilter {
+
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final MeterRegistry meterRegistry;
+    private final long slowStatementNanos;
+
+    /**
+     * Constructor for HibernateStatisticsFilter.
+     *
+     * @param meterRegistry the registry the metrics are recorded in
+     * @param slowQueryMillis execution time above which a statement is slow, 0 to not count slow statements
+     */
+    HibernateStatisticsFilter(MeterRegistry meterRegistry, long slowQueryMillis) {
+        this.meterRegistry = meterRegistry;
+        this.slowStatementNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryMillis);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        HibernateRequestStatistics statistics = HibernateRequestStatistics.start(slowStatementNanos);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            HibernateRequestStatistics.stop();
+            record(request, statistics);
+        }
+    }
+
+    private void record(HttpServletRequest request, HibernateRequestStatistics statistics) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : UNKNOWN_URI;
+        Tags tags = Tags.of("method", request.getMethod(), "uri", uri);
+
+        DistributionSummary.builder("hibernate.request.statements")
+                .description("Number of JDBC statements executed by Hibernate for a request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(statistics.getStatements());
+        DistributionSummary.builder("hibernate.request.entity.loads")
+                .description("Number of entities loaded by Hibernate for a request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(statistics.getEntityLoads());
+        DistributionSummary.builder("hibernate.request.flushes")
+                .description("Number of Hibernate session flushes for a request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(statistics.getFlushes());
+        Timer.builder("hibernate.request.statements.time")
+                .description("Time spent executing JDBC statements for a request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(statistics.getStatementNanos(), TimeUnit.NANOSECONDS);
+        if (statistics.getSlowStatements() > 0) {
+            meterRegistry.counter("hibernate.request.statements.slow", tags).increment(statistics.getSlowStatements());
+        }
+
+        log.debug("{} {} executed {} statements in {} ms, loaded {} entities, flushed {} times",
+                request.getMethod(), uri, statistics.getStatements(),
+                TimeUnit.NANOSECONDS.toMillis(statistics.getStatementNanos()),
+                statistics.getEntityLoads(), statistics.getFlushes());
+    }
+}
@@ -0,0 +1,34 @@
+package pl.wsb.fitnesstracker.monitoring.internal;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Instrumentation of the persistence layer.
+ * <p>
+ * Repository method timers ({@code spring.data.repository.invocations}) and global Hibernate metrics
+ * ({@code hibernate.*}, enabled by {@code hibernate.generate_statistics}) are provided by Spring Boot Actuator.
+ * This configuration adds the per-request counters recorded by {@link HibernateStatisticsFilter}.
+ */
+@Configuration
+class MonitoringConfig {
+
+    @Bean
+    HibernatePropertiesCustomizer requestStatisticsCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER,
+                    HibernateRequestStatistics.SessionListener.class.getName());
+            properties.put(AvailableSettings.INTERCEPTOR, new HibernateRequestStatistics.EntityLoadInterceptor());
+        };
+    }
+
+    @Bean
+    HibernateStatisticsFilter hibernateStatisticsFilter(MeterRegistry meterRegistry,
+                                                        @Value("${spring.jpa.properties.hibernate.log_slow_query:0}") long slowQueryMillis) {
+        return new HibernateStatisticsFilter(meterRegistry, slowQueryMillis);
+    }
+}
@@ -0,0 +1,12 @@
+package pl.wsb.fitnesstracker.statistics.api;
+
+/**
+ * Total users are ranked by on a leaderboard.
+ */
+public enum LeaderboardMetric {
+
+    CALORIES,
+    DISTANCE,
+    TRAININGS
+
+}
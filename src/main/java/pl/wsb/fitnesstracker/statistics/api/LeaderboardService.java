@@ -0,0 +1,38 @@
+package pl.wsb.fitnesstracker.statistics.api;
+
+import jakarta.annotation.Nullable;
+import pl.wsb.fitnesstracker.statistics.internal.LeaderboardEntryDTO;
+import pl.wsb.fitnesstracker.training.api.ActivityType;
+
+import java.util.List;
+
+/**
+ * Service interface for ranking users by their training totals.
+ * Rankings are kept in memory and updated as trainings are written, so reading the top users does not query the database.
+ */
+public interface LeaderboardService {
+
+    /**
+     * Maximum number of users returned by a single {@link #getTopUsers} call.
+     */
+    int MAX_LIMIT = 100;
+
+    /**
+     * Gets the users with the highest total of the metric, highest first.
+     * Users with equal totals are ordered by ID.
+     *
+     * @param metric the metric users are ranked by
+     * @param activityType the activity type whose trainings are counted, or null for trainings of all types
+     * @param limit maximum number of users to return
+     * @return the top users with their totals
+     * @throws IllegalArgumentException if the limit is not between 1 and {@value #MAX_LIMIT}
+     */
+    List<LeaderboardEntryDTO> getTopUsers(LeaderboardMetric metric, @Nullable ActivityType activityType, int limit);
+
+    /**
+     * Rebuilds all rankings from the trainings in the database,
+     * e.g. after trainings were loaded without going through the training service.
+     */
+    void rebuild();
+
+}
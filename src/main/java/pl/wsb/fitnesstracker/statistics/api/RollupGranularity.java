@@ -0,0 +1,45 @@
+package pl.wsb.fitnesstracker.statistics.api;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Length of the periods trainings are rolled up into.
+ */
+public enum RollupGranularity {
+
+    DAY,
+    WEEK,
+    MONTH;
+
+    /**
+     * Gets the first day of the period containing the given date.
+     * Weeks start on Monday.
+     *
+     * @param date the date
+     * @return the first day of the period
+     */
+    public LocalDate periodStart(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+        };
+    }
+
+    /**
+     * Gets the first day after the period starting on the given day.
+     *
+     * @param periodStart the first day of the period
+     * @return the first day of the next period
+     */
+    public LocalDate nextPeriodStart(LocalDate periodStart) {
+        return switch (this) {
+            case DAY -> periodStart.plusDays(1);
+            case WEEK -> periodStart.plusWeeks(1);
+            case MONTH -> periodStart.plusMonths(1);
+        };
+    }
+
+}
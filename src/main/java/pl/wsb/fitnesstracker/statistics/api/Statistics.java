@@ -2,18 +2,25 @@ package pl.wsb.fitnesstracker.statistics.api;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import pl.wsb.fitnesstracker.user.api.User;
 
 @Entity
-@Table(name = "statistics")
+@Table(name = "statistics",
+        uniqueConstraints = @UniqueConstraint(name = "uk_statistics_user", columnNames = "user_id"),
+        indexes = @Index(name = "idx_statistics_total_calories_burned", columnList = "total_calories_burned"))
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Statistics {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "statistics_seq")
+    @SequenceGenerator(name = "statistics_seq", sequenceName = "statistics_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -29,6 +36,11 @@ public class Statistics {
     @Column(name = "total_calories_burned")
     private int totalCaloriesBurned;
 
+    @Version
+    @Column(nullable = false)
+    @Setter(AccessLevel.NONE)
+    private long version;
+
     /**
      * Creates a new Statistics instance for the given user.
      *
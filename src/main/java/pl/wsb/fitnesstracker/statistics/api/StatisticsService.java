@@ -1,6 +1,7 @@
 package pl.wsb.fitnesstracker.statistics.api;
 
 import pl.wsb.fitnesstracker.statistics.internal.StatisticsDTO;
+import pl.wsb.fitnesstracker.statistics.internal.StatisticsVersion;
 
 import java.util.List;
 
@@ -36,6 +37,14 @@ public interface StatisticsService {
      */
     StatisticsDTO getStatisticsByUserId(Long userId);
 
+    /**
+     * Gets the version of the statistics of a specific user, without loading them.
+     *
+     * @param userId the ID of the user
+     * @return the versions of the statistics and of the user
+     */
+    StatisticsVersion getStatisticsVersionByUserId(Long userId);
+
     /**
      * Gets statistics by ID.
      *
@@ -0,0 +1,69 @@
+package pl.wsb.fitnesstracker.statistics.api;
+
+import jakarta.persistence.*;
+import lombok.*;
+import pl.wsb.fitnesstracker.training.api.ActivityType;
+
+import java.time.LocalDate;
+
+/**
+ * Totals of a user's trainings of one activity type, started within one day, week or month.
+ * Maintained on every training write, so that timelines never have to scan raw trainings.
+ */
+@Entity
+@Table(name = "training_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uk_training_rollups_period",
+                columnNames = {"user_id", "granularity", "period_start", "activity_type"}))
+@Getter
+@Setter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class TrainingRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "training_rollups_seq")
+    @SequenceGenerator(name = "training_rollups_seq", sequenceName = "training_rollups_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.ORDINAL)
+    @Column(name = "activity_type", nullable = false)
+    private ActivityType activityType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false, length = 5)
+    private RollupGranularity granularity;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    @Column(name = "trainings", nullable = false)
+    private int trainings;
+
+    @Column(name = "distance", nullable = false)
+    private double distance;
+
+    @Column(name = "duration_seconds", nullable = false)
+    private long durationSeconds;
+
+    @Column(name = "calories_burned", nullable = false)
+    private int caloriesBurned;
+
+    /**
+     * Creates an empty rollup of the given period.
+     *
+     * @param userId the ID of the user
+     * @param activityType the activity type
+     * @param granularity the length of the period
+     * @param periodStart the first day of the period
+     */
+    public TrainingRollup(Long userId, ActivityType activityType, RollupGranularity granularity, LocalDate periodStart) {
+        this.userId = userId;
+        this.activityType = activityType;
+        this.granularity = granularity;
+        this.periodStart = periodStart;
+    }
+
+}
@@ -0,0 +1,33 @@
+package pl.wsb.fitnesstracker.statistics.api;
+
+import pl.wsb.fitnesstracker.statistics.internal.TimelineEntryDTO;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Service interface for reading training totals per period from the precomputed {@link TrainingRollup} store.
+ */
+public interface TrainingTimelineService {
+
+    /**
+     * Gets a user's training totals per period and activity type, ordered by period.
+     *
+     * @param userId the ID of the user
+     * @param granularity the length of the periods
+     * @param from the first day of the timeline, or null for no lower bound
+     * @param to the last day of the timeline, or null for no upper bound
+     * @return the timeline entries; periods without trainings are omitted
+     */
+    List<TimelineEntryDTO> getTimeline(Long userId, RollupGranularity granularity, LocalDate from, LocalDate to);
+
+    /**
+     * Rebuilds a user's rollups from all their trainings, e.g. for trainings loaded without going through the training service.
+     *
+     * @param userId the ID of the user
+     * @param granularity the length of the periods of the returned timeline
+     * @return the rebuilt timeline
+     */
+    List<TimelineEntryDTO> recalculateTimeline(Long userId, RollupGranularity granularity);
+
+}
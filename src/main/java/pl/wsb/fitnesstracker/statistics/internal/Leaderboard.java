@@ -0,0 +1,113 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import pl.wsb.fitnesstracker.statistics.api.LeaderboardMetric;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Rankings of users by every {@link LeaderboardMetric}, each kept as a skip list sorted by the metric.
+ * Updating a user takes O(log n) per metric and reading the top k users takes O(k).
+ * <p>
+ * Updates are serialized. Reads are not locked, so a user whose position is being changed at that moment may be missed
+ * or listed with their previous totals, but is never listed twice.
+ */
+final class Leaderboard {
+
+    private final Map<Long, Standing> standings = new ConcurrentHashMap<>();
+    private final Map<LeaderboardMetric, NavigableSet<Standing>> rankings = new EnumMap<>(LeaderboardMetric.class);
+
+    Leaderboard() {
+        for (LeaderboardMetric metric : LeaderboardMetric.values()) {
+            rankings.put(metric, new ConcurrentSkipListSet<>(comparator(metric)));
+        }
+    }
+
+    /**
+     * Adds totals to those of a user. Users left without trainings are removed.
+     *
+     * @param userId the ID of the user
+     * @param trainings the number of trainings to add, negative to subtract
+     * @param distance the distance to add
+     * @param calories the calories to add
+     */
+    synchronized void add(long userId, long trainings, double distance, long calories) {
+        Standing previous = standings.get(userId);
+        Standing updated = previous == null
+                ? new Standing(userId, trainings, distance, calories)
+                : new Standing(userId, previous.trainings + trainings, previous.distance + distance, previous.calories + calories);
+        replace(previous, updated.trainings > 0 ? updated : null);
+    }
+
+    /**
+     * Removes a user from all rankings.
+     *
+     * @param userId the ID of the user
+     */
+    synchronized void remove(long userId) {
+        replace(standings.get(userId), null);
+    }
+
+    /**
+     * Gets the users with the highest totals of the metric.
+     * An update moving a user past the position being read may make the ranking yield the user again,
+     * so users already listed are skipped.
+     *
+     * @param metric the metric
+     * @param limit maximum number of users to return
+     * @return the standings of the top users, highest first
+     */
+    List<Standing> top(LeaderboardMetric metric, int limit) {
+        int capacity = Math.min(limit, standings.size());
+        List<Standing> top = new ArrayList<>(capacity);
+        Set<Long> listed = new HashSet<>((int) (capacity / 0.75f) + 1);
+        Iterator<Standing> iterator = rankings.get(metric).iterator();
+        while (top.size() < limit && iterator.hasNext()) {
+            Standing standing = iterator.next();
+            if (listed.add(standing.userId)) {
+                top.add(standing);
+            }
+        }
+        return top;
+    }
+
+    private void replace(Standing previous, Standing updated) {
+        for (NavigableSet<Standing> ranking : rankings.values()) {
+            if (previous != null) {
+                ranking.remove(previous);
+            }
+            if (updated != null) {
+                ranking.add(updated);
+            }
+        }
+        if (updated != null) {
+            standings.put(updated.userId, updated);
+        } else if (previous != null) {
+            standings.remove(previous.userId);
+        }
+    }
+
+    private static Comparator<Standing> comparator(LeaderboardMetric metric) {
+        Comparator<Standing> byMetric = switch (metric) {
+            case CALORIES -> Comparator.comparingLong(Standing::calories);
+            case DISTANCE -> Comparator.comparingDouble(Standing::distance);
+            case TRAININGS -> Comparator.comparingLong(Standing::trainings);
+        };
+        return byMetric.reversed().thenComparingLong(Standing::userId);
+    }
+
+    /**
+     * Totals of a user.
+     */
+    record Standing(long userId, long trainings, double distance, long calories) {
+    }
+}
@@ -0,0 +1,17 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+/**
+ * Data Transfer Object for a single position of a leaderboard.
+ *
+ * @param rank the position, starting from 1
+ * @param userId the ID of the user
+ * @param trainings the number of trainings
+ * @param distance the total distance covered
+ * @param caloriesBurned the total calories burned
+ */
+public record LeaderboardEntryDTO(int rank,
+                                  Long userId,
+                                  long trainings,
+                                  double distance,
+                                  long caloriesBurned) {
+}
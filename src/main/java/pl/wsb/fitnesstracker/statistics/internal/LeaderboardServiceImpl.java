@@ -0,0 +1,259 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.wsb.fitnesstracker.statistics.api.LeaderboardMetric;
+import pl.wsb.fitnesstracker.statistics.api.LeaderboardService;
+import pl.wsb.fitnesstracker.training.api.ActivityTotals;
+import pl.wsb.fitnesstracker.training.api.ActivityType;
+import pl.wsb.fitnesstracker.training.api.CalorieModel;
+import pl.wsb.fitnesstracker.training.api.TrainingProvider;
+import pl.wsb.fitnesstracker.training.api.TrainingsChangedEvent;
+import pl.wsb.fitnesstracker.user.api.UserDeletedEvent;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Implementation of the LeaderboardService interface.
+ * Keeps a {@link Leaderboard} of all trainings and one per activity type. They are built from the totals computed
+ * by the database when the application starts and updated with the deltas of training writes once they are committed,
+ * so rolled back writes never show up in the rankings. Deltas committed during a rebuild are replayed onto its result.
+ */
+@Service
+@Slf4j
+class LeaderboardServiceImpl implements LeaderboardService {
+
+    private static final int MAX_REBUILD_ATTEMPTS = 3;
+
+    private final TrainingProvider trainingProvider;
+    private final CalorieModel calorieModel;
+
+    /**
+     * Number of training writes being committed whose deltas have not been applied yet.
+     */
+    private final AtomicInteger commitsInProgress = new AtomicInteger();
+
+    /**
+     * Lets training changes update the rankings concurrently, while a rebuild swaps them in exclusively.
+     */
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    private volatile Leaderboards leaderboards = new Leaderboards();
+    /**
+     * Changes applied while a rebuild runs, replayed onto the rebuilt rankings; null when no rebuild runs.
+     */
+    private volatile Queue<Consumer<Leaderboards>> changesDuringRebuild;
+
+    /**
+     * Constructor for LeaderboardServiceImpl.
+     *
+     * @param trainingProvider the training provider
+     * @param calorieModel the model of calories burned during trainings
+     */
+    public LeaderboardServiceImpl(TrainingProvider trainingProvider, CalorieModel calorieModel) {
+        this.trainingProvider = trainingProvider;
+        this.calorieModel = calorieModel;
+    }
+
+    @Override
+    public List<LeaderboardEntryDTO> getTopUsers(LeaderboardMetric metric, ActivityType activityType, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        List<Leaderboard.Standing> top = leaderboards.of(activityType).top(metric, limit);
+        List<LeaderboardEntryDTO> entries = new ArrayList<>(top.size());
+        for (Leaderboard.Standing standing : top) {
+            entries.add(new LeaderboardEntryDTO(entries.size() + 1,
+                    standing.userId(),
+                    standing.trainings(),
+                    standing.distance(),
+                    standing.calories()));
+        }
+        return entries;
+    }
+
+    /**
+     * Rebuilds all rankings with a single aggregate query and swaps them in at once.
+     * Training changes committed while the query runs are recorded and replayed onto the rebuilt rankings before
+     * they are swapped in, so none of them is lost. A change which was already recorded, or whose write was being
+     * committed, when the query started may also be included in its totals, so the query is run again then,
+     * counting no change twice. After {@value #MAX_REBUILD_ATTEMPTS} such attempts the last result is swapped in anyway.
+     */
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        for (int attempt = 1; ; attempt++) {
+            recordChanges(new ConcurrentLinkedQueue<>());
+            boolean changedBeforeQuery = commitsInProgress.get() > 0 || !changesDuringRebuild.isEmpty();
+            List<ActivityTotals> totals;
+            try {
+                totals = trainingProvider.getActivityTotals();
+            } catch (RuntimeException e) {
+                recordChanges(null);
+                throw e;
+            }
+            if (changedBeforeQuery && attempt < MAX_REBUILD_ATTEMPTS) {
+                log.debug("Trainings were being committed when the leaderboard query started, running it again");
+                continue;
+            }
+            if (changedBeforeQuery) {
+                log.warn("Trainings were being committed when each of {} leaderboard queries started, "
+                        + "so some of them may be counted twice until the next rebuild", attempt);
+            }
+            swapIn(totals);
+            return;
+        }
+    }
+
+    private void swapIn(List<ActivityTotals> totals) {
+        Leaderboards rebuilt = new Leaderboards();
+        for (ActivityTotals activityTotals : totals) {
+            rebuilt.add(activityTotals.userId(), activityTotals.activityType(),
+                    activityTotals.trainings(), activityTotals.distance(), activityTotals.calories());
+        }
+        int replayed;
+        swapLock.writeLock().lock();
+        try {
+            replayed = changesDuringRebuild.size();
+            changesDuringRebuild.forEach(change -> change.accept(rebuilt));
+            changesDuringRebuild = null;
+            leaderboards = rebuilt;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        log.info("Rebuilt leaderboards from {} user and activity type totals and {} changes made meanwhile", totals.size(), replayed);
+    }
+
+    private void recordChanges(Queue<Consumer<Leaderboards>> changes) {
+        swapLock.writeLock().lock();
+        try {
+            changesDuringRebuild = changes;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies the changes of trainings to the rankings of their users, after the training write is committed,
+     * or at once outside of a transaction. The write is counted as being committed from the start of its commit
+     * until its changes are applied.
+     *
+     * @param event the training changes
+     */
+    @EventListener
+    public void onTrainingsChanged(TrainingsChangedEvent event) {
+        Consumer<Leaderboards> changes = changesOf(event);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(changes);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            private boolean committing;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                committing = true;
+                commitsInProgress.incrementAndGet();
+            }
+
+            @Override
+            public void afterCommit() {
+                apply(changes);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (committing) {
+                    commitsInProgress.decrementAndGet();
+                }
+            }
+        });
+    }
+
+    private Consumer<Leaderboards> changesOf(TrainingsChangedEvent event) {
+        return current -> {
+            for (TrainingsChangedEvent.Change change : event.changes()) {
+                if (change.before() != null) {
+                    TrainingsChangedEvent.Snapshot before = change.before();
+                    current.add(before.userId(), before.activityType(), -1, -before.distance(),
+                            -calorieModel.caloriesBurned(before.activityType(), before.distance()));
+                }
+                if (change.after() != null) {
+                    TrainingsChangedEvent.Snapshot after = change.after();
+                    current.add(after.userId(), after.activityType(), 1, after.distance(),
+                            calorieModel.caloriesBurned(after.activityType(), after.distance()));
+                }
+            }
+        };
+    }
+
+    /**
+     * Removes a deleted user from all rankings, after the deletion is committed.
+     *
+     * @param event the user deletion
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        apply(current -> current.remove(event.userId()));
+    }
+
+    /**
+     * Applies a change to the current rankings, recording it for the rankings being rebuilt when a rebuild runs.
+     */
+    private void apply(Consumer<Leaderboards> change) {
+        swapLock.readLock().lock();
+        try {
+            change.accept(leaderboards);
+            Queue<Consumer<Leaderboards>> recorded = changesDuringRebuild;
+            if (recorded != null) {
+                recorded.add(change);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The leaderboard of all trainings and those of every activity type.
+     */
+    private static final class Leaderboards {
+
+        private final Leaderboard overall = new Leaderboard();
+        private final Map<ActivityType, Leaderboard> byActivityType = new EnumMap<>(ActivityType.class);
+
+        Leaderboards() {
+            for (ActivityType activityType : ActivityType.values()) {
+                byActivityType.put(activityType, new Leaderboard());
+            }
+        }
+
+        Leaderboard of(ActivityType activityType) {
+            return activityType == null ? overall : byActivityType.get(activityType);
+        }
+
+        void add(long userId, ActivityType activityType, long trainings, double distance, long calories) {
+            overall.add(userId, trainings, distance, calories);
+            byActivityType.get(activityType).add(userId, trainings, distance, calories);
+        }
+
+        void remove(long userId) {
+            overall.remove(userId);
+            byActivityType.values().forEach(leaderboard -> leaderboard.remove(userId));
+        }
+    }
+}
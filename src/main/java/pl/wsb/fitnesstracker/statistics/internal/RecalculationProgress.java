@@ -0,0 +1,44 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import java.time.Instant;
+
+/**
+ * Progress of the recalculation of all users' statistics.
+ *
+ * @param state the state of the recalculation
+ * @param usersTotal the number of users with trainings, known once the recalculation started
+ * @param usersProcessed the number of users whose statistics were already saved
+ * @param startedAt the start time of the last recalculation, or null if none was started
+ * @param finishedAt the end time of the last recalculation, or null if it did not finish
+ * @param error the failure message of the last recalculation, or null if it did not fail
+ */
+record RecalculationProgress(State state,
+                             long usersTotal,
+                             long usersProcessed,
+                             Instant startedAt,
+                             Instant finishedAt,
+                             String error) {
+
+    /**
+     * State of the recalculation.
+     */
+    enum State {
+        IDLE, RUNNING, COMPLETED, FAILED
+    }
+
+    static RecalculationProgress idle() {
+        return new RecalculationProgress(State.IDLE, 0, 0, null, null, null);
+    }
+
+    static RecalculationProgress running(long usersTotal, long usersProcessed, Instant startedAt) {
+        return new RecalculationProgress(State.RUNNING, usersTotal, usersProcessed, startedAt, null, null);
+    }
+
+    RecalculationProgress completed(Instant finishedAt) {
+        return new RecalculationProgress(State.COMPLETED, usersTotal, usersProcessed, startedAt, finishedAt, null);
+    }
+
+    RecalculationProgress failed(Instant finishedAt, String error) {
+        return new RecalculationProgress(State.FAILED, usersTotal, usersProcessed, startedAt, finishedAt, error);
+    }
+}
@@ -0,0 +1,48 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller for administrative operations on statistics.
+ */
+@RestController
+@RequestMapping("/v1/admin/statistics")
+class StatisticsAdminController {
+
+    private final StatisticsRecalculationJob recalculationJob;
+
+    /**
+     * Constructor for StatisticsAdminController.
+     *
+     * @param recalculationJob the job recalculating statistics of all users
+     */
+    public StatisticsAdminController(StatisticsRecalculationJob recalculationJob) {
+        this.recalculationJob = recalculationJob;
+    }
+
+    /**
+     * Starts recalculating the statistics of all users in the background.
+     *
+     * @return the progress of the started recalculation, or of the running one with status 409 if it is already running
+     */
+    @PostMapping("/recalculation")
+    public ResponseEntity<RecalculationProgress> startRecalculation() {
+        HttpStatus status = recalculationJob.start() ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT;
+        return ResponseEntity.status(status).body(recalculationJob.getProgress());
+    }
+
+    /**
+     * Retrieves the progress of the running recalculation, or the outcome of the last one.
+     *
+     * @return the recalculation progress
+     */
+    @GetMapping("/recalculation")
+    public RecalculationProgress getRecalculationProgress() {
+        return recalculationJob.getProgress();
+    }
+}
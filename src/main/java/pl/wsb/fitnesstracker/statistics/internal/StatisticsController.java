@@ -1,9 +1,18 @@
 package pl.wsb.fitnesstracker.statistics.internal;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import pl.wsb.fitnesstracker.statistics.api.LeaderboardMetric;
+import pl.wsb.fitnesstracker.statistics.api.LeaderboardService;
+import pl.wsb.fitnesstracker.statistics.api.RollupGranularity;
 import pl.wsb.fitnesstracker.statistics.api.StatisticsService;
+import pl.wsb.fitnesstracker.statistics.api.TrainingTimelineService;
+import pl.wsb.fitnesstracker.training.api.ActivityType;
 
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -15,14 +24,22 @@ import java.util.List;
 class StatisticsController {
 
     private final StatisticsService statisticsService;
+    private final TrainingTimelineService trainingTimelineService;
+    private final LeaderboardService leaderboardService;
 
     /**
      * Constructor for StatisticsController.
      *
      * @param statisticsService the statistics service
+     * @param trainingTimelineService the training timeline service
+     * @param leaderboardService the leaderboard service
      */
-    public StatisticsController(StatisticsService statisticsService) {
+    public StatisticsController(StatisticsService statisticsService,
+                                TrainingTimelineService trainingTimelineService,
+                                LeaderboardService leaderboardService) {
         this.statisticsService = statisticsService;
+        this.trainingTimelineService = trainingTimelineService;
+        this.leaderboardService = leaderboardService;
     }
 
     /**
@@ -51,14 +68,25 @@ class StatisticsController {
     }
 
     /**
-     * Gets statistics for a specific user.
+     * Gets statistics for a specific user, tagged with an entity tag derived from their version.
+     * When the request carries the current entity tag in If-None-Match, 304 Not Modified is returned
+     * without loading or serializing the statistics.
+     * The version is read before the statistics, so a concurrent update can only make the returned tag stale,
+     * which costs the client one more full response.
      *
      * @param userId the ID of the user
-     * @return the user's statistics
+     * @param request the request, checked for the If-None-Match header
+     * @return the user's statistics, or no body if they are not modified
      */
     @GetMapping("/users/{userId}")
-    public StatisticsDTO getStatisticsByUserId(@PathVariable Long userId) {
-        return statisticsService.getStatisticsByUserId(userId);
+    public ResponseEntity<StatisticsDTO> getStatisticsByUserId(@PathVariable Long userId, WebRequest request) {
+        String eTag = statisticsService.getStatisticsVersionByUserId(userId).toETag();
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .body(statisticsService.getStatisticsByUserId(userId));
     }
 
     /**
@@ -104,4 +132,49 @@ class StatisticsController {
     public StatisticsDTO recalculateStatistics(@PathVariable Long userId) {
         return statisticsService.recalculateStatistics(userId);
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets a user's training totals per period and activity type, read from precomputed rollups.
+     *
+     * @param userId the ID of the user
+     * @param granularity the length of the periods, MONTH by default
+     * @param from the first day of the timeline (ISO date), optional
+     * @param to the last day of the timeline (ISO date), optional
+     * @return the timeline entries ordered by period
+     */
+    @GetMapping("/users/{userId}/timeline")
+    public List<TimelineEntryDTO> getTimeline(@PathVariable Long userId,
+                                              @RequestParam(defaultValue = "MONTH") RollupGranularity granularity,
+                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return trainingTimelineService.getTimeline(userId, granularity, from, to);
+    }
+
+    /**
+     * Rebuilds a user's training rollups from all their trainings.
+     *
+     * @param userId the ID of the user
+     * @param granularity the length of the periods of the returned timeline, MONTH by default
+     * @return the rebuilt timeline
+     */
+    @PostMapping("/users/{userId}/timeline/recalculate")
+    public List<TimelineEntryDTO> recalculateTimeline(@PathVariable Long userId,
+                                                      @RequestParam(defaultValue = "MONTH") RollupGranularity granularity) {
+        return trainingTimelineService.recalculateTimeline(userId, granularity);
+    }
+
+    /**
+     * Gets the users with the highest training totals.
+     *
+     * @param metric the total users are ranked by, CALORIES by default
+     * @param activityType the activity type whose trainings are counted, all types if not given
+     * @param limit maximum number of users to return, 10 by default
+     * @return the top users, highest first
+     */
+    @GetMapping("/leaderboard")
+    public List<LeaderboardEntryDTO> getLeaderboard(@RequestParam(defaultValue = "CALORIES") LeaderboardMetric metric,
+                                                    @RequestParam(required = false) ActivityType activityType,
+                                                    @RequestParam(defaultValue = "10") int limit) {
+        return leaderboardService.getTopUsers(metric, activityType, limit);
+    }
+}
@@ -0,0 +1,352 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.wsb.fitnesstracker.WorkerThreads;
+import pl.wsb.fitnesstracker.statistics.api.LeaderboardService;
+import pl.wsb.fitnesstracker.statistics.api.RollupGranularity;
+import pl.wsb.fitnesstracker.statistics.api.Statistics;
+import pl.wsb.fitnesstracker.training.api.ActivityType;
+import pl.wsb.fitnesstracker.training.api.CalorieModel;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Recalculates the statistics of all users at once.
+ * <p>
+ * Totals of all users are computed by the database with a single aggregate query over the trainings, which applies
+ * the {@link CalorieModel} coefficients to every training, so calories match those of the per-user recalculation.
+ * The totals are streamed in user order and upserted into the statistics table in JDBC batches, one transaction
+ * per batch, without loading any entity. Statistics of users left without trainings are reset to zero.
+ * Every updated row gets its version incremented, like an entity update would, so entity tags of the statistics change
+ * and concurrent entity updates fail with an optimistic locking error instead of overwriting the recalculated totals.
+ * The rollups of the training timeline are then rebuilt in a single transaction, with one grouped insert per granularity
+ * computing the period of every training in the database, and the leaderboards are rebuilt last, so both also reflect
+ * trainings written without going through the training service.
+ * <p>
+ * Training writes made while the recalculation runs may be overwritten by totals computed before them,
+ * so the recalculation is meant to be run after changing the calorie model or loading data, not under write load.
+ */
+@Service
+@Slf4j
+class StatisticsRecalculationJob {
+
+    private static final String COUNT_USERS = "SELECT COUNT(DISTINCT user_id) FROM trainings";
+    private static final String AGGREGATE_TOTALS = """
+            SELECT user_id, COUNT(*), COALESCE(SUM(distance), 0), COALESCE(SUM(TRUNC(distance * %s)), 0)
+            FROM trainings
+            WHERE user_id IS NOT NULL
+            GROUP BY user_id
+            ORDER BY user_id
+            """;
+    private static final String UPDATE_STATISTICS = """
+            UPDATE statistics SET total_trainings = ?, total_distance = ?, total_calories_burned = ?, version = version + 1
+            WHERE user_id = ?
+            """;
+    private static final String INSERT_STATISTICS = """
+            INSERT INTO statistics (id, user_id, total_trainings, total_distance, total_calories_burned)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+    private static final String RESET_STATISTICS_WITHOUT_TRAININGS = """
+            UPDATE statistics SET total_trainings = 0, total_distance = 0, total_calories_burned = 0, version = version + 1
+            WHERE NOT EXISTS (SELECT 1 FROM trainings t WHERE t.user_id = statistics.user_id)
+              AND (total_trainings <> 0 OR total_distance <> 0 OR total_calories_burned <> 0)
+            """;
+    private static final String DELETE_ROLLUPS = "DELETE FROM training_rollups";
+    private static final String INSERT_ROLLUPS = """
+            INSERT INTO training_rollups (id, user_id, activity_type, granularity, period_start,
+                                          trainings, distance, duration_seconds, calories_burned)
+            SELECT NEXT VALUE FOR training_rollups_seq, user_id, activity_type, ?, period_start,
+                   trainings, distance, duration_seconds, calories_burned
+            FROM (SELECT user_id, activity_type, %1$s AS period_start, COUNT(*) AS trainings,
+                         COALESCE(SUM(distance), 0) AS distance,
+                         SUM(DATEDIFF(MILLISECOND, start_time, end_time) / 1000) AS duration_seconds,
+                         COALESCE(SUM(TRUNC(distance * %2$s)), 0) AS calories_burned
+                  FROM trainings
+                  WHERE user_id IS NOT NULL
+                  GROUP BY user_id, activity_type, %1$s)
+            """;
+    private static final String STATISTICS_SEQUENCE = "statistics_seq";
+    /**
+     * Allocation size of the statistics ID sequence.
+     */
+    private static final int ID_BLOCK_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CalorieModel calorieModel;
+    private final EntityManagerFactory entityManagerFactory;
+    private final LeaderboardService leaderboardService;
+    private final int batchSize;
+    private final ExecutorService executor;
+
+    private volatile RecalculationProgress progress = RecalculationProgress.idle();
+
+    /**
+     * Constructor for StatisticsRecalculationJob.
+     *
+     * @param jdbcTemplate the JDBC template
+     * @param transactionManager the transaction manager of the batches
+     * @param calorieModel the model of calories burned during trainings
+     * @param entityManagerFactory the entity manager factory whose caches are evicted after the recalculation
+     * @param leaderboardService the leaderboard service rebuilt after the recalculation
+     * @param environment the environment deciding whether the job runs on a virtual thread
+     * @param batchSize the number of users saved in a single batch
+     */
+    StatisticsRecalculationJob(JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               CalorieModel calorieModel,
+                               EntityManagerFactory entityManagerFactory,
+                               LeaderboardService leaderboardService,
+                               Environment environment,
+                               @Value("${statistics.recalculation.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.calorieModel = calorieModel;
+        this.entityManagerFactory = entityManagerFactory;
+        this.leaderboardService = leaderboardService;
+        this.batchSize = batchSize;
+        this.executor = Executors.newSingleThreadExecutor(WorkerThreads.factory(environment, "statistics-recalculation-"));
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Starts the recalculation in the background, unless it is already running.
+     *
+     * @return true if the recalculation was started, false if it is already running
+     */
+    synchronized boolean start() {
+        if (progress.state() == RecalculationProgress.State.RUNNING) {
+            return false;
+        }
+        progress = RecalculationProgress.running(0, 0, Instant.now());
+        executor.execute(this::recalculateAll);
+        return true;
+    }
+
+    /**
+     * Returns the progress of the running recalculation, or the outcome of the last one.
+     *
+     * @return the progress
+     */
+    RecalculationProgress getProgress() {
+        return progress;
+    }
+
+    /**
+     * Recalculates the statistics of all users, recording the progress.
+     */
+    void recalculateAll() {
+        Instant startedAt = progress.startedAt() != null ? progress.startedAt() : Instant.now();
+        try {
+            long usersTotal = jdbcTemplate.queryForObject(COUNT_USERS, Long.class);
+            progress = RecalculationProgress.running(usersTotal, 0, startedAt);
+            log.info("Recalculating statistics of {} users", usersTotal);
+
+            UserTotals batch = new UserTotals(batchSize);
+            LongSupplier ids = idBlocks();
+            jdbcTemplate.query(this::prepareAggregate, (RowCallbackHandler) resultSet -> {
+                if (batch.isFull()) {
+                    saveBatch(batch, ids);
+                }
+                batch.add(resultSet);
+            });
+            saveBatch(batch, ids);
+            int reset = jdbcTemplate.update(RESET_STATISTICS_WITHOUT_TRAININGS);
+            int rollups = rebuildRollups();
+
+            evictCachedStatistics();
+            leaderboardService.rebuild();
+            progress = progress.completed(Instant.now());
+            log.info("Recalculated statistics of {} users, reset {} and rebuilt {} rollups in {} ms",
+                    progress.usersProcessed(), reset, rollups, progress.finishedAt().toEpochMilli() - startedAt.toEpochMilli());
+        } catch (RuntimeException e) {
+            evictCachedStatistics();
+            progress = progress.failed(Instant.now(), e.getMessage());
+            log.error("Recalculating statistics failed after {} users", progress.usersProcessed(), e);
+        }
+    }
+
+    /**
+     * Prepares the aggregate query, with the calorie coefficient of every activity type as a parameter.
+     */
+    private PreparedStatement prepareAggregate(Connection connection) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(AGGREGATE_TOTALS.formatted(coefficientsByActivityType()),
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(batchSize);
+        setCoefficients(statement, 1);
+        return statement;
+    }
+
+    /**
+     * Replaces the rollups of all users with totals grouped by user, activity type and period of every granularity.
+     *
+     * @return the number of inserted rollups
+     */
+    private int rebuildRollups() {
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.update(DELETE_ROLLUPS);
+            int inserted = 0;
+            for (RollupGranularity granularity : RollupGranularity.values()) {
+                inserted += jdbcTemplate.update(INSERT_ROLLUPS.formatted(periodStart(granularity), coefficientsByActivityType()),
+                        statement -> {
+                            statement.setString(1, granularity.name());
+                            setCoefficients(statement, 2);
+                        });
+            }
+            return inserted;
+        });
+    }
+
+    /**
+     * Computes the first day of the period of a training like {@link RollupGranularity#periodStart}.
+     */
+    private static String periodStart(RollupGranularity granularity) {
+        return switch (granularity) {
+            case DAY -> "CAST(start_time AS DATE)";
+            case WEEK -> "DATEADD(DAY, 1 - ISO_DAY_OF_WEEK(start_time), CAST(start_time AS DATE))";
+            case MONTH -> "CAST(DATE_TRUNC(MONTH, start_time) AS DATE)";
+        };
+    }
+
+    /**
+     * Selects the calorie coefficient of the activity type of a training, bound by {@link #setCoefficients}.
+     */
+    private static String coefficientsByActivityType() {
+        return Stream.of(ActivityType.values())
+                .map(activityType -> " WHEN " + activityType.ordinal() + " THEN ?")
+                .collect(Collectors.joining("", "CASE activity_type", " END"));
+    }
+
+    private void setCoefficients(PreparedStatement statement, int firstIndex) throws SQLException {
+        for (ActivityType activityType : ActivityType.values()) {
+            statement.setDouble(firstIndex + activityType.ordinal(), calorieModel.caloriesPerKilometre(activityType));
+        }
+    }
+
+    /**
+     * Updates the statistics of the users of the batch, inserting statistics of the users who have none.
+     */
+    private void saveBatch(UserTotals batch, LongSupplier ids) {
+        if (batch.size == 0) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            int[] updated = jdbcTemplate.batchUpdate(UPDATE_STATISTICS, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement statement, int i) throws SQLException {
+                    statement.setInt(1, batch.trainings[i]);
+                    statement.setDouble(2, batch.distances[i]);
+                    statement.setInt(3, batch.calories[i]);
+                    statement.setLong(4, batch.userIds[i]);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return batch.size;
+                }
+            });
+            int[] missing = new int[batch.size];
+            int missingCount = 0;
+            for (int i = 0; i < batch.size; i++) {
+                if (updated[i] == 0) {
+                    missing[missingCount++] = i;
+                }
+            }
+            int inserts = missingCount;
+            jdbcTemplate.batchUpdate(INSERT_STATISTICS, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement statement, int i) throws SQLException {
+                    int user = missing[i];
+                    statement.setLong(1, ids.getAsLong());
+                    statement.setLong(2, batch.userIds[user]);
+                    statement.setInt(3, batch.trainings[user]);
+                    statement.setDouble(4, batch.distances[user]);
+                    statement.setInt(5, batch.calories[user]);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return inserts;
+                }
+            });
+        });
+        progress = RecalculationProgress.running(progress.usersTotal(), progress.usersProcessed() + batch.size,
+                progress.startedAt());
+        batch.size = 0;
+    }
+
+    /**
+     * Hands out IDs from blocks reserved with a single sequence call each, following the pooled-lo optimizer
+     * of the {@link Statistics} entity, so inserted rows never collide with statistics saved by the application.
+     */
+    private LongSupplier idBlocks() {
+        long[] block = {0, ID_BLOCK_SIZE};
+        return () -> {
+            if (block[1] == ID_BLOCK_SIZE) {
+                block[0] = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR " + STATISTICS_SEQUENCE, Long.class);
+                block[1] = 0;
+            }
+            return block[0] + block[1]++;
+        };
+    }
+
+    private void evictCachedStatistics() {
+        entityManagerFactory.getCache().evict(Statistics.class);
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+    }
+
+    /**
+     * Totals of a batch of users, kept in columns reused by every batch.
+     */
+    private static final class UserTotals {
+
+        private final long[] userIds;
+        private final int[] trainings;
+        private final double[] distances;
+        private final int[] calories;
+        private int size;
+
+        UserTotals(int capacity) {
+            userIds = new long[capacity];
+            trainings = new int[capacity];
+            distances = new double[capacity];
+            calories = new int[capacity];
+        }
+
+        boolean isFull() {
+            return size == userIds.length;
+        }
+
+        void add(ResultSet resultSet) throws SQLException {
+            userIds[size] = resultSet.getLong(1);
+            trainings[size] = resultSet.getInt(2);
+            distances[size] = resultSet.getDouble(3);
+            calories[size] = (int) resultSet.getLong(4);
+            size++;
+        }
+    }
+}
@@ -1,6 +1,12 @@
 package pl.wsb.fitnesstracker.statistics.internal;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import pl.wsb.fitnesstracker.statistics.api.Statistics;
 
@@ -16,11 +22,54 @@ interface StatisticsRepository extends JpaRepository<Statistics, Long> {
 
     /**
      * Finds statistics for a specific user.
+     * Served by the unique index on the user column, and by the query cache when it is enabled.
+     * Compares the foreign key column directly, a derived query would filter on the joined users table instead.
      *
      * @param userId the ID of the user
      * @return an Optional containing the statistics if found, empty otherwise
      */
-    Optional<Statistics> findByUserId(Long userId);
+    @Query("SELECT s FROM Statistics s WHERE s.user.id = :userId")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Optional<Statistics> findByUserId(@Param("userId") Long userId);
+
+    /**
+     * Finds the versions of the statistics of a specific user and of the user, without loading the entities.
+     * Served by the unique index on the user column and the primary key of users, and by the query cache when it is enabled.
+     *
+     * @param userId the ID of the user
+     * @return an Optional containing the versions if the user has statistics, empty otherwise
+     */
+    @Query("SELECT new pl.wsb.fitnesstracker.statistics.internal.StatisticsVersion(s.version, u.version) "
+            + "FROM Statistics s JOIN s.user u WHERE u.id = :userId")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Optional<StatisticsVersion> findVersionByUserId(@Param("userId") Long userId);
+
+    /**
+     * Adds the given deltas to the totals of a user's statistics with a single atomic update, incrementing their version.
+     * Concurrent increments of the same statistics wait for each other on the updated row instead of overwriting each other,
+     * and overwrites of statistics loaded before the increment fail the optimistic lock check.
+     * Pending changes are flushed first; statistics already loaded in the persistence context are not refreshed.
+     * The distance parameter is cast explicitly, since the inferred floating point type renders invalid SQL on H2.
+     *
+     * @param userId the ID of the user
+     * @param trainings the change of the number of trainings
+     * @param distance the change of the total distance
+     * @param calories the change of the total calories burned
+     * @return the number of updated statistics, 0 if the user has none
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            UPDATE Statistics s
+            SET s.totalTrainings = s.totalTrainings + :trainings,
+                s.totalDistance = s.totalDistance + CAST(:distance AS Double),
+                s.totalCaloriesBurned = s.totalCaloriesBurned + :calories,
+                s.version = s.version + 1
+            WHERE s.user.id = :userId
+            """)
+    int incrementTotals(@Param("userId") Long userId,
+                        @Param("trainings") int trainings,
+                        @Param("distance") double distance,
+                        @Param("calories") int calories);
 
     /**
      * Finds all statistics where total calories burned is greater than the specified value.
@@ -36,5 +85,15 @@ interface StatisticsRepository extends JpaRepository<Statistics, Long> {
      * @param userId the ID of the user
      * @return true if statistics exist, false otherwise
      */
-    boolean existsByUserId(Long userId);
+    @Query("SELECT COUNT(s) > 0 FROM Statistics s WHERE s.user.id = :userId")
+    boolean existsByUserId(@Param("userId") Long userId);
+
+    /**
+     * Deletes statistics of a specific user.
+     *
+     * @param userId the ID of the user
+     */
+    default void deleteByUserId(Long userId) {
+        findByUserId(userId).ifPresent(this::delete);
+    }
 }
\ No newline at end of file
@@ -1,32 +1,56 @@
 package pl.wsb.fitnesstracker.statistics.internal;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import pl.wsb.fitnesstracker.exception.api.NotFoundException;
 import pl.wsb.fitnesstracker.statistics.api.Statistics;
 import pl.wsb.fitnesstracker.statistics.api.StatisticsMapper;
 import pl.wsb.fitnesstracker.statistics.api.StatisticsProvider;
 import pl.wsb.fitnesstracker.statistics.api.StatisticsService;
-import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.api.CalorieModel;
 import pl.wsb.fitnesstracker.training.api.TrainingProvider;
+import pl.wsb.fitnesstracker.training.api.TrainingTotals;
+import pl.wsb.fitnesstracker.training.api.TrainingsChangedEvent;
 import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserDeletedEvent;
 import pl.wsb.fitnesstracker.user.api.UserProvider;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
  * Implementation of the StatisticsService interface.
  * Provides business logic for managing user statistics.
+ * <p>
+ * Training writes are applied as atomic increments of the totals, so concurrent writes for the same user never lose
+ * each other's changes. Overwrites of the totals, by updates and recalculations, rely on the version of the statistics
+ * and are retried from the start when the statistics were modified concurrently.
  */
 @Service
+@Slf4j
 class StatisticsServiceImpl implements StatisticsService, StatisticsProvider {
 
+    /**
+     * Maximum number of attempts of an overwrite failing the optimistic lock check.
+     */
+    static final int MAX_WRITE_ATTEMPTS = 3;
+
     private final StatisticsRepository statisticsRepository;
     private final StatisticsMapper statisticsMapper;
     private final UserProvider userProvider;
     private final TrainingProvider trainingProvider;
+    private final CalorieModel calorieModel;
+    private final TransactionTemplate transactionTemplate;
 
     /**
      * Constructor for StatisticsServiceImpl.
@@ -35,15 +59,21 @@ class StatisticsServiceImpl implements StatisticsService, StatisticsProvider {
      * @param statisticsMapper the statistics mapper
      * @param userProvider the user provider
      * @param trainingProvider the training provider
+     * @param calorieModel the model of calories burned during trainings
+     * @param transactionManager the transaction manager of the retried overwrites
      */
     public StatisticsServiceImpl(StatisticsRepository statisticsRepository,
                                 StatisticsMapper statisticsMapper,
                                 UserProvider userProvider,
-                                TrainingProvider trainingProvider) {
+                                TrainingProvider trainingProvider,
+                                CalorieModel calorieModel,
+                                PlatformTransactionManager transactionManager) {
         this.statisticsRepository = statisticsRepository;
         this.statisticsMapper = statisticsMapper;
         this.userProvider = userProvider;
         this.trainingProvider = trainingProvider;
+        this.calorieModel = calorieModel;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Override
@@ -66,14 +96,15 @@ class StatisticsServiceImpl implements StatisticsService, StatisticsProvider {
     }
 
     @Override
-    @Transactional
     public StatisticsDTO updateStatistics(Long userId, StatisticsDTO dto) {
-        Statistics statistics = statisticsRepository.findByUserId(userId)
-                .orElseThrow(() -> new NotFoundException("Statistics not found for user with ID: " + userId));
+        return retryOnConflict(() -> {
+            Statistics statistics = statisticsRepository.findByUserId(userId)
+                    .orElseThrow(() -> new NotFoundException("Statistics not found for user with ID: " + userId));
 
-        statisticsMapper.updateEntity(dto, statistics);
-        Statistics updated = statisticsRepository.save(statistics);
-        return statisticsMapper.toDto(updated);
+            statisticsMapper.updateEntity(dto, statistics);
+            Statistics updated = statisticsRepository.save(statistics);
+            return statisticsMapper.toDto(updated);
+        });
     }
 
     @Override
@@ -84,6 +115,13 @@ class StatisticsServiceImpl implements StatisticsService, StatisticsProvider {
         return statisticsMapper.toDto(statistics);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public StatisticsVersion getStatisticsVersionByUserId(Long userId) {
+        return statisticsRepository.findVersionByUserId(userId)
+                .orElseThrow(() -> new NotFoundException("Statistics not found for user with ID: " + userId));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public StatisticsDTO getStatisticsById(Long statisticsId) {
@@ -111,29 +149,23 @@ class StatisticsServiceImpl implements StatisticsService, StatisticsProvider {
     }
 
     @Override
-    @Transactional
     public StatisticsDTO recalculateStatistics(Long userId) {
-        User user = userProvider.getUser(userId)
-                .orElseThrow(() -> new NotFoundException("User not found with ID: " + userId));
-
-        List<Training> userTrainings = trainingProvider.findTrainingsByUserId(userId);
+        return retryOnConflict(() -> {
+            User user = userProvider.getUser(userId)
+                    .orElseThrow(() -> new NotFoundException("User not found with ID: " + userId));
 
-        Statistics statistics = statisticsRepository.findByUserId(userId)
-                .orElseGet(() -> new Statistics(user));
+            TrainingTotals totals = trainingProvider.getTrainingTotals(userId);
 
-        int totalTrainings = userTrainings.size();
-        double totalDistance = userTrainings.stream()
-                .mapToDouble(Training::getDistance)
-                .sum();
-        
-        int totalCalories = calculateTotalCalories(userTrainings);
+            Statistics statistics = statisticsRepository.findByUserId(userId)
+                    .orElseGet(() -> new Statistics(user));
 
-        statistics.setTotalTrainings(totalTrainings);
-        statistics.setTotalDistance(totalDistance);
-        statistics.setTotalCaloriesBurned(totalCalories);
+            statistics.setTotalTrainings((int) totals.trainings());
+            statistics.setTotalDistance(totals.distance());
+            statistics.setTotalCaloriesBurned((int) totals.calories());
 
-        Statistics saved = statisticsRepository.save(statistics);
-        return statisticsMapper.toDto(saved);
+            Statistics saved = statisticsRepository.save(statistics);
+            return statisticsMapper.toDto(saved);
+        });
     }
 
     @Override
@@ -143,29 +175,92 @@ class StatisticsServiceImpl implements StatisticsService, StatisticsProvider {
     }
 
     /**
-     * Calculates total calories burned based on trainings.
-     * This is a simplified calculation based on distance and activity type.
+     * Applies the changes of trainings to the statistics of their users, within the transaction of the training write.
+     * The changes are added to the totals by atomic updates, which do not load the statistics.
+     * Users without statistics get them recalculated from all their trainings.
+     *
+     * @param event the training changes
+     */
+    @EventListener
+    @Transactional
+    public void onTrainingsChanged(TrainingsChangedEvent event) {
+        Map<Long, StatisticsDelta> deltas = new LinkedHashMap<>();
+        for (TrainingsChangedEvent.Change change : event.changes()) {
+            if (change.before() != null) {
+                deltas.merge(change.before().userId(), StatisticsDelta.of(change.before(), calorieModel).negate(), StatisticsDelta::plus);
+            }
+            if (change.after() != null) {
+                deltas.merge(change.after().userId(), StatisticsDelta.of(change.after(), calorieModel), StatisticsDelta::plus);
+            }
+        }
+        deltas.forEach(this::applyDelta);
+    }
+
+    /**
+     * Removes the statistics of a user being deleted.
      *
-     * @param trainings the list of trainings
-     * @return total calories burned
+     * @param event the user deletion
+     */
+    @EventListener
+    @Transactional
+    public void onUserDeleted(UserDeletedEvent event) {
+        statisticsRepository.deleteByUserId(event.userId());
+    }
+
+    private void applyDelta(Long userId, StatisticsDelta delta) {
+        if (delta.isZero()) {
+            return;
+        }
+        int updated = statisticsRepository.incrementTotals(userId, delta.trainings(), delta.distance(), delta.calories());
+        if (updated == 0) {
+            recalculateStatistics(userId);
+        }
+    }
+
+    /**
+     * Runs an overwrite of statistics in its own transaction, running it again from the start when the statistics
+     * were modified concurrently, up to {@value #MAX_WRITE_ATTEMPTS} attempts.
+     * Joins the transaction of the caller when there is one, which cannot be retried once the optimistic lock check fails.
+     */
+    private <T> T retryOnConflict(Supplier<T> overwrite) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return overwrite.get();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> overwrite.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt == MAX_WRITE_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Attempt {} to overwrite statistics failed on a concurrent modification, retrying", attempt);
+            }
+        }
+    }
+
+    /**
+     * Change of statistics totals caused by training writes.
      */
-    private int calculateTotalCalories(List<Training> trainings) {
-        return trainings.stream()
-                .mapToInt(training -> {
-                    double distance = training.getDistance();
-                    switch (training.getActivityType()) {
-                        case RUNNING:
-                            return (int) (distance * 100);
-                        case CYCLING:
-                            return (int) (distance * 50);
-                        case WALKING:
-                            return (int) (distance * 60);
-                        case TENNIS:
-                            return (int) (distance * 80);
-                        default:
-                            return (int) (distance * 70);
-                    }
-                })
-                .sum();
+    private record StatisticsDelta(int trainings, double distance, int calories) {
+
+        static StatisticsDelta of(TrainingsChangedEvent.Snapshot training, CalorieModel calorieModel) {
+            return new StatisticsDelta(1,
+                    training.distance(),
+                    calorieModel.caloriesBurned(training.activityType(), training.distance()));
+        }
+
+        StatisticsDelta negate() {
+            return new StatisticsDelta(-trainings, -distance, -calories);
+        }
+
+        StatisticsDelta plus(StatisticsDelta other) {
+            return new StatisticsDelta(trainings + other.trainings,
+                    distance + other.distance,
+                    calories + other.calories);
+        }
+
+        boolean isZero() {
+            return trainings == 0 && distance == 0.0 && calories == 0;
+        }
     }
 }
\ No newline at end of file
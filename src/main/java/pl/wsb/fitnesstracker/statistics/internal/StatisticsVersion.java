@@ -0,0 +1,20 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+/**
+ * Versions of the statistics of a user and of the user, which together change whenever the statistics representation does,
+ * since it includes the email of the user.
+ *
+ * @param statistics the version of the statistics
+ * @param user the version of the user
+ */
+public record StatisticsVersion(long statistics, long user) {
+
+    /**
+     * Returns the strong entity tag of the statistics representation.
+     *
+     * @return the quoted entity tag
+     */
+    public String toETag() {
+        return "\"" + statistics + "." + user + "\"";
+    }
+}
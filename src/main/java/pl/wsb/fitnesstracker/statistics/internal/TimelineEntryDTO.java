@@ -0,0 +1,23 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import pl.wsb.fitnesstracker.training.api.ActivityType;
+
+import java.time.LocalDate;
+
+/**
+ * Data Transfer Object for a single period of a training timeline.
+ *
+ * @param periodStart the first day of the period
+ * @param activityType the activity type
+ * @param trainings the number of trainings started within the period
+ * @param distance the total distance covered
+ * @param durationSeconds the total duration of the trainings
+ * @param caloriesBurned the total calories burned
+ */
+public record TimelineEntryDTO(LocalDate periodStart,
+                               ActivityType activityType,
+                               int trainings,
+                               double distance,
+                               long durationSeconds,
+                               int caloriesBurned) {
+}
@@ -0,0 +1,102 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import pl.wsb.fitnesstracker.statistics.api.RollupGranularity;
+import pl.wsb.fitnesstracker.statistics.api.TrainingRollup;
+import pl.wsb.fitnesstracker.training.api.ActivityType;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for {@link TrainingRollup} entities.
+ */
+@Repository
+interface TrainingRollupRepository extends JpaRepository<TrainingRollup, Long> {
+
+    /**
+     * Finds the rollups of a user with the given granularity, optionally limited to a range of periods.
+     * Served by the unique index on user, granularity and period start.
+     *
+     * @param userId the ID of the user
+     * @param granularity the granularity
+     * @param from the first period start to include, or null for no lower bound
+     * @param to the last period start to include, or null for no upper bound
+     * @return the rollups ordered by period start and activity type
+     */
+    @Query("""
+            SELECT r FROM TrainingRollup r
+            WHERE r.userId = :userId AND r.granularity = :granularity
+              AND (:from IS NULL OR r.periodStart >= :from)
+              AND (:to IS NULL OR r.periodStart <= :to)
+            ORDER BY r.periodStart, r.activityType
+            """)
+    List<TrainingRollup> findTimeline(@Param("userId") Long userId,
+                                      @Param("granularity") RollupGranularity granularity,
+                                      @Param("from") LocalDate from,
+                                      @Param("to") LocalDate to);
+
+    /**
+     * Adds the given deltas to the totals of one rollup with a single atomic update.
+     * Concurrent increments of the same rollup wait for each other on the updated row instead of overwriting each other.
+     * A rollup which would be left with a negative number of trainings is not updated, since it does not count
+     * all trainings of its period.
+     * Pending changes are flushed first; rollups already loaded in the persistence context are not refreshed.
+     * The distance parameter is cast explicitly, since the inferred floating point type renders invalid SQL on H2.
+     *
+     * @param userId the ID of the user
+     * @param activityType the activity type
+     * @param granularity the length of the period
+     * @param periodStart the first day of the period
+     * @param trainings the change of the number of trainings
+     * @param distance the change of the total distance
+     * @param durationSeconds the change of the total duration in seconds
+     * @param calories the change of the total calories burned
+     * @return the number of updated rollups, 0 if the rollup does not exist yet or was not updated
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            UPDATE TrainingRollup r
+            SET r.trainings = r.trainings + :trainings,
+                r.distance = r.distance + CAST(:distance AS Double),
+                r.durationSeconds = r.durationSeconds + :durationSeconds,
+                r.caloriesBurned = r.caloriesBurned + :calories
+            WHERE r.userId = :userId AND r.activityType = :activityType
+              AND r.granularity = :granularity AND r.periodStart = :periodStart
+              AND r.trainings + :trainings >= 0
+            """)
+    int incrementTotals(@Param("userId") Long userId,
+                        @Param("activityType") ActivityType activityType,
+                        @Param("granularity") RollupGranularity granularity,
+                        @Param("periodStart") LocalDate periodStart,
+                        @Param("trainings") int trainings,
+                        @Param("distance") double distance,
+                        @Param("durationSeconds") long durationSeconds,
+                        @Param("calories") int calories);
+
+    /**
+     * Deletes the rollups of a user, starting on one of the given days, which no longer count any training.
+     *
+     * @param userId the ID of the user
+     * @param periodStarts the first days of the periods
+     * @return the number of deleted rollups
+     */
+    @Modifying
+    @Query("DELETE FROM TrainingRollup r WHERE r.userId = :userId AND r.periodStart IN :periodStarts AND r.trainings <= 0")
+    int deleteEmpty(@Param("userId") Long userId, @Param("periodStarts") Collection<LocalDate> periodStarts);
+
+    /**
+     * Deletes all rollups of a user with a single statement, without loading them.
+     *
+     * @param userId the ID of the user
+     * @return the number of deleted rollups
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM TrainingRollup r WHERE r.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+}
@@ -0,0 +1,269 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.wsb.fitnesstracker.exception.api.NotFoundException;
+import pl.wsb.fitnesstracker.statistics.api.RollupGranularity;
+import pl.wsb.fitnesstracker.statistics.api.TrainingRollup;
+import pl.wsb.fitnesstracker.statistics.api.TrainingTimelineService;
+import pl.wsb.fitnesstracker.training.api.ActivityType;
+import pl.wsb.fitnesstracker.training.api.CalorieModel;
+import pl.wsb.fitnesstracker.training.api.TrainingProvider;
+import pl.wsb.fitnesstracker.training.api.TrainingsChangedEvent;
+import pl.wsb.fitnesstracker.user.api.UserDeletedEvent;
+import pl.wsb.fitnesstracker.user.api.UserProvider;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementation of the TrainingTimelineService interface.
+ * Keeps the {@link TrainingRollup} store up to date by applying the deltas of training writes as atomic increments.
+ */
+@Service
+@Slf4j
+class TrainingTimelineServiceImpl implements TrainingTimelineService {
+
+    private static final String INSERT_ROLLUP = """
+            INSERT INTO training_rollups (id, user_id, activity_type, granularity, period_start,
+                                          trainings, distance, duration_seconds, calories_burned)
+            VALUES (NEXT VALUE FOR training_rollups_seq, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+    private static final String COUNT_TRAININGS = """
+            SELECT COUNT(*) FROM trainings
+            WHERE user_id = ? AND activity_type = ? AND start_time >= ? AND start_time < ?
+            """;
+    private static final int MAX_INSERT_ATTEMPTS = 3;
+
+    private final TrainingRollupRepository trainingRollupRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final UserProvider userProvider;
+    private final TrainingProvider trainingProvider;
+    private final CalorieModel calorieModel;
+
+    /**
+     * Constructor for TrainingTimelineServiceImpl.
+     *
+     * @param trainingRollupRepository the training rollup repository
+     * @param jdbcTemplate the JDBC template inserting missing rollups and counting the trainings of their periods
+     * @param userProvider the user provider
+     * @param trainingProvider the training provider
+     * @param calorieModel the model of calories burned during trainings
+     */
+    public TrainingTimelineServiceImpl(TrainingRollupRepository trainingRollupRepository,
+                                       JdbcTemplate jdbcTemplate,
+                                       UserProvider userProvider,
+                                       TrainingProvider trainingProvider,
+                                       CalorieModel calorieModel) {
+        this.trainingRollupRepository = trainingRollupRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.userProvider = userProvider;
+        this.trainingProvider = trainingProvider;
+        this.calorieModel = calorieModel;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<TimelineEntryDTO> getTimeline(Long userId, RollupGranularity granularity, LocalDate from, LocalDate to) {
+        if (userProvider.getUser(userId).isEmpty()) {
+            throw new NotFoundException("User not found with ID: " + userId);
+        }
+        LocalDate fromPeriod = from != null ? granularity.periodStart(from) : null;
+        return trainingRollupRepository.findTimeline(userId, granularity, fromPeriod, to).stream()
+                .map(TrainingTimelineServiceImpl::toDto)
+                .toList();
+    }
+
+    @Override
+    @Transactional
+    public List<TimelineEntryDTO> recalculateTimeline(Long userId, RollupGranularity granularity) {
+        if (userProvider.getUser(userId).isEmpty()) {
+            throw new NotFoundException("User not found with ID: " + userId);
+        }
+        rebuildRollups(userId);
+        return getTimeline(userId, granularity, null, null);
+    }
+
+    /**
+     * Applies the changes of trainings to the rollups of their users, within the transaction of the training write.
+     *
+     * @param event the training changes
+     */
+    @EventListener
+    @Transactional
+    public void onTrainingsChanged(TrainingsChangedEvent event) {
+        Map<RollupKey, RollupDelta> deltas = new LinkedHashMap<>();
+        for (TrainingsChangedEvent.Change change : event.changes()) {
+            if (change.before() != null) {
+                addSnapshot(deltas, change.before(), -1);
+            }
+            if (change.after() != null) {
+                addSnapshot(deltas, change.after(), 1);
+            }
+        }
+        Map<Long, Map<RollupKey, RollupDelta>> deltasByUser = new LinkedHashMap<>();
+        deltas.forEach((key, delta) -> {
+            if (!delta.isZero()) {
+                deltasByUser.computeIfAbsent(key.userId(), userId -> new LinkedHashMap<>()).put(key, delta);
+            }
+        });
+        deltasByUser.forEach(this::applyDeltas);
+    }
+
+    /**
+     * Removes the rollups of a user being deleted.
+     *
+     * @param event the user deletion
+     */
+    @EventListener
+    @Transactional
+    public void onUserDeleted(UserDeletedEvent event) {
+        trainingRollupRepository.deleteByUserId(event.userId());
+    }
+
+    private void addSnapshot(Map<RollupKey, RollupDelta> deltas, TrainingsChangedEvent.Snapshot training, int sign) {
+        LocalDate day = training.startTime().toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        RollupDelta delta = RollupDelta.of(training, sign, calorieModel);
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            RollupKey key = new RollupKey(training.userId(), training.activityType(), granularity, granularity.periodStart(day));
+            deltas.merge(key, delta, RollupDelta::plus);
+        }
+    }
+
+    /**
+     * Adds the deltas to the rollups of a user with atomic increments, so concurrent training writes never overwrite
+     * each other's totals. A missing rollup is inserted when the trainings of its period are exactly those of the delta;
+     * when a concurrent transaction inserted it first, the insert fails on the unique period key and the increment is run
+     * again against the committed row. The insert bypasses Hibernate, so its failure does not mark the training write
+     * transaction for rollback. Rollups left without trainings are deleted.
+     * <p>
+     * A rollup which is missing although its period has other trainings, or which would be left with a negative number
+     * of trainings, does not count trainings written without going through the training service, so all rollups of
+     * the user are rebuilt from their trainings instead.
+     */
+    private void applyDeltas(Long userId, Map<RollupKey, RollupDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<RollupKey, RollupDelta> entry : deltas.entrySet()) {
+            if (!applyDelta(entry.getKey(), entry.getValue())) {
+                log.info("Rollup {} does not count all trainings of its period, rebuilding rollups of user {}",
+                        entry.getKey(), userId);
+                rebuildRollups(userId);
+                return;
+            }
+        }
+        trainingRollupRepository.deleteEmpty(userId, deltas.keySet().stream().map(RollupKey::periodStart).distinct().toList());
+    }
+
+    /**
+     * Adds the delta to a rollup, inserting the rollup of a period without other trainings.
+     *
+     * @return false if the rollup does not count all trainings of its period
+     */
+    private boolean applyDelta(RollupKey key, RollupDelta delta) {
+        if (incrementTotals(key, delta)) {
+            return true;
+        }
+        if (delta.trainings() > 0 && countTrainings(key) == delta.trainings()) {
+            insertRollup(key, delta);
+            return true;
+        }
+        // Trainings counted above may have been committed together with their rollup after the first increment.
+        return incrementTotals(key, delta);
+    }
+
+    /**
+     * Deletes the rollups of a user and rolls up all their trainings again, including the uncommitted changes
+     * of the current transaction.
+     */
+    private void rebuildRollups(Long userId) {
+        trainingRollupRepository.deleteByUserId(userId);
+        Map<RollupKey, RollupDelta> deltas = new LinkedHashMap<>();
+        trainingProvider.findTrainingsByUserId(userId)
+                .forEach(training -> addSnapshot(deltas, TrainingsChangedEvent.Snapshot.of(training), 1));
+        deltas.forEach(this::insertRollup);
+    }
+
+    private boolean incrementTotals(RollupKey key, RollupDelta delta) {
+        return trainingRollupRepository.incrementTotals(key.userId(), key.activityType(), key.granularity(),
+                key.periodStart(), delta.trainings(), delta.distance(), delta.durationSeconds(), delta.calories()) > 0;
+    }
+
+    /**
+     * Counts the trainings of the period of a rollup, including those written by the current transaction,
+     * which were flushed by the preceding increment.
+     */
+    private long countTrainings(RollupKey key) {
+        return jdbcTemplate.queryForObject(COUNT_TRAININGS, Long.class, key.userId(), key.activityType().ordinal(),
+                Timestamp.valueOf(key.periodStart().atStartOfDay()),
+                Timestamp.valueOf(key.granularity().nextPeriodStart(key.periodStart()).atStartOfDay()));
+    }
+
+    private void insertRollup(RollupKey key, RollupDelta delta) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                jdbcTemplate.update(INSERT_ROLLUP, key.userId(), key.activityType().ordinal(), key.granularity().name(),
+                        key.periodStart(), delta.trainings(), delta.distance(), delta.durationSeconds(), delta.calories());
+                return;
+            } catch (DuplicateKeyException e) {
+                if (attempt == MAX_INSERT_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Rollup {} was inserted concurrently, incrementing it instead", key);
+            }
+            if (incrementTotals(key, delta)) {
+                return;
+            }
+        }
+    }
+
+    private static TimelineEntryDTO toDto(TrainingRollup rollup) {
+        return new TimelineEntryDTO(rollup.getPeriodStart(),
+                rollup.getActivityType(),
+                rollup.getTrainings(),
+                rollup.getDistance(),
+                rollup.getDurationSeconds(),
+                rollup.getCaloriesBurned());
+    }
+
+    /**
+     * Identity of a rollup.
+     */
+    private record RollupKey(Long userId, ActivityType activityType, RollupGranularity granularity, LocalDate periodStart) {
+    }
+
+    /**
+     * Change of rollup totals caused by training writes.
+     */
+    private record RollupDelta(int trainings, double distance, long durationSeconds, int calories) {
+
+        static RollupDelta of(TrainingsChangedEvent.Snapshot training, int sign, CalorieModel calorieModel) {
+            long durationSeconds = (training.endTime().getTime() - training.startTime().getTime()) / 1000;
+            return new RollupDelta(sign,
+                    sign * training.distance(),
+                    sign * durationSeconds,
+                    sign * calorieModel.caloriesBurned(training.activityType(), training.distance()));
+        }
+
+        RollupDelta plus(RollupDelta other) {
+            return new RollupDelta(trainings + other.trainings,
+                    distance + other.distance,
+                    durationSeconds + other.durationSeconds,
+                    calories + other.calories);
+        }
+
+        boolean isZero() {
+            return trainings == 0 && distance == 0 && durationSeconds == 0 && calories == 0;
+        }
+    }
+
+}
@@ -0,0 +1,13 @@
+package pl.wsb.fitnesstracker.training.api;
+
+/**
+ * Totals of the trainings of a user of a single activity type, computed by the database.
+ *
+ * @param userId ID of the user
+ * @param activityType the activity type
+ * @param trainings number of trainings
+ * @param distance total distance covered
+ * @param calories total calories burned, according to the {@link CalorieModel}
+ */
+public record ActivityTotals(Long userId, ActivityType activityType, long trainings, double distance, long calories) {
+}
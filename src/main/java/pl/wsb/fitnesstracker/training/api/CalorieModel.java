@@ -0,0 +1,134 @@
+package pl.wsb.fitnesstracker.training.api;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Model of calories burned during trainings, as a number of calories per kilometre of every {@link ActivityType}.
+ * Coefficients are kept in a table indexed by the activity type ordinal, the value stored in the database,
+ * so calories can be computed straight from columns of training data without creating any objects.
+ * <p>
+ * The model used by the application is the {@code CalorieModel} bean, {@link #DEFAULT} unless replaced.
+ */
+public final class CalorieModel {
+
+    /**
+     * The default model: 100 calories per kilometre of running, 50 of cycling, 60 of walking, 70 of swimming and 80 of tennis.
+     */
+    public static final CalorieModel DEFAULT = of(Map.of(
+            ActivityType.RUNNING, 100.0,
+            ActivityType.CYCLING, 50.0,
+            ActivityType.WALKING, 60.0,
+            ActivityType.SWIMMING, 70.0,
+            ActivityType.TENNIS, 80.0));
+
+    private final double[] caloriesPerKilometre;
+
+    private CalorieModel(double[] caloriesPerKilometre) {
+        this.caloriesPerKilometre = caloriesPerKilometre;
+    }
+
+    /**
+     * Creates a model with the given coefficients.
+     *
+     * @param caloriesPerKilometre calories burned per kilometre of every activity type
+     * @return the model
+     * @throws IllegalArgumentException if the coefficient of any activity type is missing
+     */
+    public static CalorieModel of(Map<ActivityType, Double> caloriesPerKilometre) {
+        double[] coefficients = new double[ActivityType.values().length];
+        for (ActivityType activityType : ActivityType.values()) {
+            Double coefficient = caloriesPerKilometre.get(activityType);
+            if (coefficient == null) {
+                throw new IllegalArgumentException("Missing calories per kilometre of " + activityType);
+            }
+            coefficients[activityType.ordinal()] = coefficient;
+        }
+        return new CalorieModel(coefficients);
+    }
+
+    /**
+     * Returns the coefficient of an activity type, so the model can also be applied by a database query.
+     *
+     * @param activityType the activity type
+     * @return calories burned per kilometre
+     */
+    public double caloriesPerKilometre(ActivityType activityType) {
+        return caloriesPerKilometre[activityType.ordinal()];
+    }
+
+    /**
+     * Calculates calories burned during a single training.
+     *
+     * @param activityType the activity type
+     * @param distance the distance covered
+     * @return calories burned
+     */
+    public int caloriesBurned(ActivityType activityType, double distance) {
+        return caloriesBurned(activityType.ordinal(), distance);
+    }
+
+    /**
+     * Calculates calories burned during a single training.
+     *
+     * @param activityType the ordinal of the activity type
+     * @param distance the distance covered
+     * @return calories burned
+     */
+    public int caloriesBurned(int activityType, double distance) {
+        return (int) (distance * caloriesPerKilometre[activityType]);
+    }
+
+    /**
+     * Calculates total calories burned during the trainings.
+     *
+     * @param trainings the trainings
+     * @return total calories burned
+     */
+    public int totalCalories(List<Training> trainings) {
+        int total = 0;
+        for (int i = 0; i < trainings.size(); i++) {
+            Training training = trainings.get(i);
+            total += caloriesBurned(training.getActivityType(), training.getDistance());
+        }
+        return total;
+    }
+
+    /**
+     * Calculates total calories burned during a range of trainings given as columns.
+     *
+     * @param activityTypes the ordinals of the activity types of the trainings
+     * @param distances the distances of the trainings
+     * @param from the index of the first training, inclusive
+     * @param to the index of the last training, exclusive
+     * @return total calories burned
+     */
+    public long totalCalories(byte[] activityTypes, double[] distances, int from, int to) {
+        long total = 0;
+        for (int i = from; i < to; i++) {
+            total += (int) (distances[i] * caloriesPerKilometre[activityTypes[i]]);
+        }
+        return total;
+    }
+
+    /**
+     * Calculates calories burned during every training of a range of trainings given as columns.
+     *
+     * @param activityTypes the ordinals of the activity types of the trainings
+     * @param distances the distances of the trainings
+     * @param calories the column to write the calories burned during each training to, at the index of the training
+     * @param from the index of the first training, inclusive
+     * @param to the index of the last training, exclusive
+     */
+    public void caloriesBurned(byte[] activityTypes, double[] distances, int[] calories, int from, int to) {
+        for (int i = from; i < to; i++) {
+            calories[i] = (int) (distances[i] * caloriesPerKilometre[activityTypes[i]]);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CalorieModel" + Arrays.toString(caloriesPerKilometre);
+    }
+}
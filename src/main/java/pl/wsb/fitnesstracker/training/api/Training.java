@@ -7,7 +7,12 @@ import pl.wsb.fitnesstracker.user.api.User;
 import java.util.Date;
 
 @Entity
-@Table(name = "trainings")
+@Table(name = "trainings",
+        indexes = {
+                @Index(name = "idx_trainings_user_start_time", columnList = "user_id, start_time"),
+                @Index(name = "idx_trainings_end_time", columnList = "end_time"),
+                @Index(name = "idx_trainings_activity_type", columnList = "activity_type")
+        })
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
@@ -15,11 +20,13 @@ import java.util.Date;
 public class Training {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trainings_seq")
+    @SequenceGenerator(name = "trainings_seq", sequenceName = "trainings_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
+    @ToString.Exclude
     private User user;
 
     @Column(name = "start_time", nullable = false)
@@ -38,6 +45,11 @@ public class Training {
     @Column(name = "average_speed")
     private double averageSpeed;
 
+    @Version
+    @Column(nullable = false)
+    @Setter(AccessLevel.NONE)
+    private long version;
+
     public Training(
             final User user,
             final Date startTime,
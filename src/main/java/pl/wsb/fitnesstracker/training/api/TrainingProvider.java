@@ -1,5 +1,6 @@
 package pl.wsb.fitnesstracker.training.api;
 
+import pl.wsb.fitnesstracker.training.internal.TrainingBatchResult;
 import pl.wsb.fitnesstracker.training.internal.TrainingDTO;
 
 import java.util.Date;
@@ -8,6 +9,11 @@ import java.util.Optional;
 
 public interface TrainingProvider {
 
+    /**
+     * Maximum number of trainings created by a single {@link #createTrainings(List)} call.
+     */
+    int MAX_BATCH_SIZE = 1000;
+
     /**
      * Retrieves a training based on their ID.
      * If the training with given ID is not found, then {@link Optional#empty()} will be returned.
@@ -24,6 +30,15 @@ public interface TrainingProvider {
      */
     List<Training> findAllTrainings();
 
+    /**
+     * Retrieves the next page of all trainings, ordered by ID.
+     *
+     * @param afterId ID of the last training of the previous page, or 0 for the first page
+     * @param limit maximum number of trainings to return
+     * @return trainings with ID greater than the given one
+     */
+    List<Training> findAllTrainings(Long afterId, int limit);
+
     /**
      * Retrieves all trainings for a specific user.
      *
@@ -32,6 +47,32 @@ public interface TrainingProvider {
      */
     List<Training> findTrainingsByUserId(Long userId);
 
+    /**
+     * Computes the number of trainings of a user, the total distance and the total calories burned,
+     * without loading the trainings.
+     *
+     * @param userId id of the user
+     * @return totals of the trainings of the user, all zero if the user has none
+     */
+    TrainingTotals getTrainingTotals(Long userId);
+
+    /**
+     * Computes the totals of the trainings of every user per activity type, without loading the trainings.
+     *
+     * @return totals of every user and activity type the user has trainings of
+     */
+    List<ActivityTotals> getActivityTotals();
+
+    /**
+     * Retrieves the next page of trainings for a specific user, ordered by ID.
+     *
+     * @param userId id of the user
+     * @param afterId ID of the last training of the previous page, or 0 for the first page
+     * @param limit maximum number of trainings to return
+     * @return trainings for the user with ID greater than the given one
+     */
+    List<Training> findTrainingsByUserId(Long userId, Long afterId, int limit);
+
     /**
      * Retrieves all trainings finished after the specified time.
      *
@@ -40,6 +81,16 @@ public interface TrainingProvider {
      */
     List<Training> findFinishedTrainingsAfter(Date afterTime);
 
+    /**
+     * Retrieves the next page of trainings finished after the specified time, ordered by ID.
+     *
+     * @param afterTime the time after which trainings should be finished
+     * @param afterId ID of the last training of the previous page, or 0 for the first page
+     * @param limit maximum number of trainings to return
+     * @return trainings finished after the time with ID greater than the given one
+     */
+    List<Training> findFinishedTrainingsAfter(Date afterTime, Long afterId, int limit);
+
     /**
      * Retrieves all trainings by activity type.
      *
@@ -48,16 +99,39 @@ public interface TrainingProvider {
      */
     List<Training> findTrainingsByActivityType(ActivityType activityType);
 
+    /**
+     * Retrieves the next page of trainings by activity type, ordered by ID.
+     *
+     * @param activityType the activity type
+     * @param afterId ID of the last training of the previous page, or 0 for the first page
+     * @param limit maximum number of trainings to return
+     * @return trainings with the specified activity type and ID greater than the given one
+     */
+    List<Training> findTrainingsByActivityType(ActivityType activityType, Long afterId, int limit);
+
     /**
      * Creates a new training.
+     * Publishes a {@link TrainingsChangedEvent} within the same transaction.
      *
      * @param training the training to create
      * @return the created training
      */
     Training createTraining(Training training);
 
+    /**
+     * Creates trainings in bulk, resolving all their users with a single query.
+     * Trainings failing validation are rejected, the valid ones are saved together.
+     * Publishes a single {@link TrainingsChangedEvent} for all created trainings within the same transaction.
+     *
+     * @param trainings the trainings to create
+     * @return result for every training, in the order of the given list
+     * @throws IllegalArgumentException if there are more than {@value #MAX_BATCH_SIZE} trainings
+     */
+    List<TrainingBatchResult> createTrainings(List<TrainingDTO> trainings);
+
     /**
      * Updates an existing training.
+     * Publishes a {@link TrainingsChangedEvent} within the same transaction.
      *
      * @param trainingId the ID of the training to update
      * @param training the training data
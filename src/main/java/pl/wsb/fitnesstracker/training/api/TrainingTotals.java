@@ -0,0 +1,11 @@
+package pl.wsb.fitnesstracker.training.api;
+
+/**
+ * Totals of the trainings of a user, computed by the database.
+ *
+ * @param trainings number of trainings
+ * @param distance total distance covered
+ * @param calories total calories burned, according to the {@link CalorieModel}
+ */
+public record TrainingTotals(long trainings, double distance, long calories) {
+}
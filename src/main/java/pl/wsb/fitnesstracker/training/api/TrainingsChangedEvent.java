@@ -0,0 +1,62 @@
+package pl.wsb.fitnesstracker.training.api;
+
+import jakarta.annotation.Nullable;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Event published within the transaction that creates or updates {@link Training} entities.
+ * Each change carries the state of a training before and after the write, so that listeners
+ * maintaining derived data (e.g. statistics) can apply deltas instead of rescanning all trainings.
+ *
+ * @param changes the changes made by the write
+ */
+public record TrainingsChangedEvent(List<Change> changes) {
+
+    /**
+     * Creates an event for a single change.
+     *
+     * @param before the training state before the write, or null for a new training
+     * @param after the training state after the write
+     * @return the event
+     */
+    public static TrainingsChangedEvent of(@Nullable Snapshot before, @Nullable Snapshot after) {
+        return new TrainingsChangedEvent(List.of(new Change(before, after)));
+    }
+
+    /**
+     * Change of a single training.
+     *
+     * @param before the training state before the write, or null if the training was created
+     * @param after the training state after the write, or null if the training was removed
+     */
+    public record Change(@Nullable Snapshot before, @Nullable Snapshot after) {
+    }
+
+    /**
+     * State of a training relevant for derived data.
+     *
+     * @param userId ID of the training's user
+     * @param activityType the activity type
+     * @param startTime the start time
+     * @param endTime the end time
+     * @param distance the distance covered
+     */
+    public record Snapshot(Long userId, ActivityType activityType, Date startTime, Date endTime, double distance) {
+
+        /**
+         * Captures the current state of the given training.
+         *
+         * @param training the training
+         * @return the snapshot
+         */
+        public static Snapshot of(Training training) {
+            return new Snapshot(training.getUser().getId(),
+                    training.getActivityType(),
+                    training.getStartTime(),
+                    training.getEndTime(),
+                    training.getDistance());
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import pl.wsb.fitnesstracker.training.api.CalorieModel;
+
+/**
+ * Provides the {@link CalorieModel} used to calculate calories burned during trainings.
+ */
+@Configuration
+class CalorieModelConfig {
+
+    @Bean
+    CalorieModel calorieModel() {
+        return CalorieModel.DEFAULT;
+    }
+}
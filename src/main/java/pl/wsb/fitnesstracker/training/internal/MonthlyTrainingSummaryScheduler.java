@@ -1,33 +1,142 @@
 package pl.wsb.fitnesstracker.training.internal;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Limit;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import pl.wsb.fitnesstracker.WorkerThreads;
 import pl.wsb.fitnesstracker.mail.api.EmailDto;
 import pl.wsb.fitnesstracker.mail.api.EmailSender;
 import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.user.api.User;
 import pl.wsb.fitnesstracker.user.internal.UserRepository;
 
 import java.text.SimpleDateFormat;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
+/**
+ * Sends every user a summary of their trainings from the previous month.
+ * <p>
+ * Users are split into partitions of consecutive IDs, processed in parallel by a pool of workers,
+ * which are virtual threads when they are enabled, see {@link WorkerThreads}.
+ * Each partition is checkpointed in the {@code summary_job_partitions} table after every chunk of users,
+ * so a job stopped halfway resumes where it left off and a month already summarized is not sent again.
+ * A chunk is checkpointed only once its emails were delivered, see {@link EmailSender#sendAndWait(List)},
+ * so a chunk interrupted during delivery is sent again on resume and some users may get its summary twice.
+ * <p>
+ * Exposes the {@code summary.job.duration} and {@code summary.job.partition.duration} timers,
+ * the {@code summary.job.emails} counter and the {@code summary.job.partitions.remaining} gauge.
+ */
 @Component
-@RequiredArgsConstructor
+@EnableConfigurationProperties(SummaryJobProperties.class)
+@Slf4j
 public class MonthlyTrainingSummaryScheduler {
 
     private final UserRepository userRepository;
     private final TrainingRepository trainingRepository;
+    private final SummaryJobPartitionRepository partitionRepository;
     private final EmailSender emailSender;
+    private final SummaryJobProperties properties;
+    private final Clock clock;
+    private final ThreadFactory threadFactory;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicInteger remainingPartitions = new AtomicInteger();
+    private final Timer jobDuration;
+    private final Timer partitionDuration;
+    private final Counter emails;
+
+    /**
+     * Constructor for MonthlyTrainingSummaryScheduler.
+     *
+     * @param userRepository the user repository
+     * @param trainingRepository the training repository
+     * @param partitionRepository the repository of job checkpoints
+     * @param emailSender the sender of summary emails
+     * @param properties the job configuration
+     * @param meterRegistry the registry of job metrics
+     * @param environment the environment deciding whether the workers are virtual threads
+     */
+    @Autowired
+    MonthlyTrainingSummaryScheduler(UserRepository userRepository,
+                                    TrainingRepository trainingRepository,
+                                    SummaryJobPartitionRepository partitionRepository,
+                                    EmailSender emailSender,
+                                    SummaryJobProperties properties,
+                                    MeterRegistry meterRegistry,
+                                    Environment environment) {
+        this(userRepository, trainingRepository, partitionRepository, emailSender, properties, meterRegistry,
+                WorkerThreads.factory(environment, "monthly-summary-"), Clock.systemDefaultZone());
+    }
+
+    MonthlyTrainingSummaryScheduler(UserRepository userRepository,
+                                    TrainingRepository trainingRepository,
+                                    SummaryJobPartitionRepository partitionRepository,
+                                    EmailSender emailSender,
+                                    SummaryJobProperties properties,
+                                    MeterRegistry meterRegistry,
+                                    ThreadFactory threadFactory,
+                                    Clock clock) {
+        this.userRepository = userRepository;
+        this.trainingRepository = trainingRepository;
+        this.partitionRepository = partitionRepository;
+        this.emailSender = emailSender;
+        this.properties = properties;
+        this.clock = clock;
+        this.threadFactory = threadFactory;
+        this.jobDuration = Timer.builder("summary.job.duration")
+                .description("Time of a run of the monthly summary job")
+                .register(meterRegistry);
+        this.partitionDuration = Timer.builder("summary.job.partition.duration")
+                .description("Time of processing a single partition of users")
+                .register(meterRegistry);
+        this.emails = Counter.builder("summary.job.emails")
+                .description("Number of summary emails sent")
+                .register(meterRegistry);
+        Gauge.builder("summary.job.partitions.remaining", remainingPartitions, AtomicInteger::get)
+                .description("Number of partitions of the running job not completed yet")
+                .register(meterRegistry);
+    }
 
     @Scheduled(cron = "0 20 21 * * *", zone = "Europe/Warsaw")
     public void sendMonthlySummary() {
-        ZoneId zone = ZoneId.systemDefault();
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Monthly summary job is already running");
+            return;
+        }
+        try {
+            jobDuration.record(this::runJob);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void runJob() {
+        ZoneId zone = clock.getZone();
 
-        LocalDate firstDayOfPrevMonth = LocalDate.now().minusMonths(1).withDayOfMonth(1);
+        LocalDate firstDayOfPrevMonth = LocalDate.now(clock).minusMonths(1).withDayOfMonth(1);
         LocalDate lastDayOfPrevMonth = firstDayOfPrevMonth.withDayOfMonth(firstDayOfPrevMonth.lengthOfMonth());
 
         LocalDateTime startOfMonth = firstDayOfPrevMonth.atStartOfDay();
@@ -36,24 +145,136 @@ public class MonthlyTrainingSummaryScheduler {
         Date startDate = Date.from(startOfMonth.atZone(zone).toInstant());
         Date endDate = Date.from(endOfMonth.atZone(zone).toInstant());
 
-        userRepository.findAll().forEach(user -> {
-            List<Training> trainings = trainingRepository.findByUserAndStartTimeBetween(user, startDate, endDate);
+        List<SummaryJobPartition> pending = findOrCreatePartitions(firstDayOfPrevMonth).stream()
+                .filter(partition -> !partition.isCompleted())
+                .toList();
+        if (pending.isEmpty()) {
+            log.info("Monthly summaries of {} were already sent", firstDayOfPrevMonth);
+            return;
+        }
+
+        log.info("Sending monthly summaries of {}, {} partitions left", firstDayOfPrevMonth, pending.size());
+        remainingPartitions.set(pending.size());
+        long started = System.nanoTime();
+        AtomicInteger sent = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(properties.getWorkers(), threadFactory);
+        try {
+            List<Future<?>> partitions = new ArrayList<>(pending.size());
+            for (SummaryJobPartition partition : pending) {
+                partitions.add(workers.submit(() -> partitionDuration.record(
+                        () -> sent.addAndGet(processPartition(partition, startDate, endDate)))));
+            }
+            int failed = 0;
+            for (Future<?> partition : partitions) {
+                try {
+                    partition.get();
+                } catch (ExecutionException e) {
+                    failed++;
+                    log.error("Monthly summary partition failed, it will be resumed on the next run", e.getCause());
+                }
+            }
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+            log.info("Sent {} monthly summaries in {} ms ({} emails/s), {} partitions failed",
+                    sent.get(), elapsed.toMillis(), sent.get() * 1000L / Math.max(1, elapsed.toMillis()), failed);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Monthly summary job was interrupted, it will be resumed on the next run");
+        } finally {
+            workers.shutdownNow();
+            remainingPartitions.set(0);
+        }
+    }
+
+    /**
+     * Loads the partitions of the month, creating them on the first run.
+     * The last partition has no upper bound, so it also covers users created after partitioning.
+     *
+     * @param periodStart the first day of the summarized month
+     * @return the partitions ordered by their first user ID
+     */
+    private List<SummaryJobPartition> findOrCreatePartitions(LocalDate periodStart) {
+        List<SummaryJobPartition> partitions = partitionRepository.findByPeriodStartOrderByFirstUserIdAsc(periodStart);
+        if (!partitions.isEmpty()) {
+            return partitions;
+        }
+
+        long maxUserId = userRepository.findMaxId().orElse(0L);
+        long partitionSize = properties.getPartitionSize();
+        List<SummaryJobPartition> created = new ArrayList<>();
+        long first = 1;
+        for (; first + partitionSize <= maxUserId; first += partitionSize) {
+            created.add(new SummaryJobPartition(periodStart, first, first + partitionSize - 1));
+        }
+        created.add(new SummaryJobPartition(periodStart, first, Long.MAX_VALUE));
+        return partitionRepository.saveAll(created);
+    }
+
+    /**
+     * Sends summaries to the users of one partition not sent one yet, saving the progress after every chunk.
+     *
+     * @param partition the partition to process
+     * @param startDate start of the summarized period
+     * @param endDate end of the summarized period
+     * @return the number of sent summaries
+     */
+    private int processPartition(SummaryJobPartition partition, Date startDate, Date endDate) {
+        int sent = 0;
+        List<User> users;
+        do {
+            users = userRepository.findByIdGreaterThanAndIdLessThanEqualOrderByIdAsc(
+                    partition.getProcessedUpTo(), partition.getLastUserId(), Limit.of(properties.getChunkSize()));
+            if (users.isEmpty()) {
+                break;
+            }
+            sendSummaries(users, startDate, endDate);
+            sent += users.size();
+            emails.increment(users.size());
+            partition.recordProgress(users.get(users.size() - 1).getId(), users.size());
+            partition = partitionRepository.save(partition);
+        } while (users.size() == properties.getChunkSize());
+
+        partition.complete(clock.instant());
+        partitionRepository.save(partition);
+        remainingPartitions.decrementAndGet();
+        return sent;
+    }
+
+    /**
+     * Sends summaries to one chunk of users, loading the trainings of the whole chunk with a single query.
+     * Returns once all summaries of the chunk were delivered.
+     *
+     * @param users the chunk of users, ordered by ID
+     * @param startDate start of the summarized period
+     * @param endDate end of the summarized period
+     */
+    private void sendSummaries(List<User> users, Date startDate, Date endDate) {
+        List<Long> userIds = users.stream()
+                .map(User::getId)
+                .toList();
+        Map<Long, List<Training>> trainingsByUserId = trainingRepository
+                .findByUserIdInAndStartTimeBetweenOrderByStartTime(userIds, startDate, endDate)
+                .stream()
+                .collect(Collectors.groupingBy(training -> training.getUser().getId()));
 
-            String htmlContent = buildHtmlEmail(user.getFirstName(), trainings);
+        List<EmailDto> summaries = users.stream()
+                .map(user -> {
+                    List<Training> trainings = trainingsByUserId.getOrDefault(user.getId(), List.of());
 
-            EmailDto email = new EmailDto(
-                    user.getEmail(),
-                    "Miesięczne podsumowanie treningów",
-                    htmlContent,
-                    true
-            );
+                    String htmlContent = buildHtmlEmail(user.getFirstName(), trainings);
 
-            emailSender.send(email);
+                    return new EmailDto(
+                            user.getEmail(),
+                            "Miesięczne podsumowanie treningów",
+                            htmlContent,
+                            true
+                    );
+                })
+                .toList();
 
-        });
+        emailSender.sendAndWait(summaries);
     }
 
-    private String buildHtmlEmail(String firstName, List<Training> trainings) {
+    String buildHtmlEmail(String firstName, List<Training> trainings) {
         StringBuilder sb = new StringBuilder();
 
         sb.append("<html><body>");
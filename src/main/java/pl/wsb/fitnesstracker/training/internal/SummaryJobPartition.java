@@ -0,0 +1,86 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Checkpoint of the monthly training summary job for one range of user IDs.
+ * Progress is saved after every chunk of users, so a restarted job skips completed partitions
+ * and continues the others after the last user that was already sent a summary.
+ */
+@Entity
+@Table(name = "summary_job_partitions",
+        uniqueConstraints = @UniqueConstraint(name = "uk_summary_job_partitions_range",
+                columnNames = {"period_start", "first_user_id"}))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class SummaryJobPartition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "summary_job_partitions_seq")
+    @SequenceGenerator(name = "summary_job_partitions_seq", sequenceName = "summary_job_partitions_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    @Column(name = "first_user_id", nullable = false)
+    private Long firstUserId;
+
+    @Column(name = "last_user_id", nullable = false)
+    private Long lastUserId;
+
+    @Column(name = "processed_up_to", nullable = false)
+    private Long processedUpTo;
+
+    @Column(name = "emails_sent", nullable = false)
+    private int emailsSent;
+
+    @Column(name = "completed_at")
+    private Instant completedAt;
+
+    /**
+     * Creates a partition with no progress.
+     *
+     * @param periodStart the first day of the summarized month
+     * @param firstUserId the first user ID of the range, inclusive
+     * @param lastUserId the last user ID of the range, inclusive
+     */
+    SummaryJobPartition(LocalDate periodStart, Long firstUserId, Long lastUserId) {
+        this.periodStart = periodStart;
+        this.firstUserId = firstUserId;
+        this.lastUserId = lastUserId;
+        this.processedUpTo = firstUserId - 1;
+    }
+
+    /**
+     * Records that summaries were sent to all users of the range up to the given ID.
+     *
+     * @param userId the ID of the last user sent a summary
+     * @param emails the number of summaries sent since the previous checkpoint
+     */
+    void recordProgress(Long userId, int emails) {
+        this.processedUpTo = userId;
+        this.emailsSent += emails;
+    }
+
+    /**
+     * Marks all users of the range as sent a summary.
+     *
+     * @param completedAt the time of completion
+     */
+    void complete(Instant completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    boolean isCompleted() {
+        return completedAt != null;
+    }
+}
@@ -0,0 +1,23 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repository interface for {@link SummaryJobPartition} entities.
+ */
+@Repository
+interface SummaryJobPartitionRepository extends JpaRepository<SummaryJobPartition, Long> {
+
+    /**
+     * Finds the partitions of the summary job of a month.
+     * Served by the unique index on period start and first user ID.
+     *
+     * @param periodStart the first day of the summarized month
+     * @return the partitions ordered by their first user ID
+     */
+    List<SummaryJobPartition> findByPeriodStartOrderByFirstUserIdAsc(LocalDate periodStart);
+}
@@ -0,0 +1,28 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration of the {@link MonthlyTrainingSummaryScheduler}.
+ */
+@ConfigurationProperties(prefix = "summary-job")
+@Getter
+@Setter
+class SummaryJobProperties {
+    /**
+     * Number of threads processing partitions in parallel.
+     */
+    private int workers = 4;
+    /**
+     * Number of users whose summaries are built from a single query and sent before a checkpoint.
+     * Every worker waits for the delivery of a whole chunk, so workers times chunk size should not exceed
+     * the capacity of the mail queue, or the workers wait for each other's emails to leave the queue.
+     */
+    private int chunkSize = 250;
+    /**
+     * Number of consecutive user IDs in a single partition.
+     */
+    private int partitionSize = 10_000;
+}
@@ -0,0 +1,28 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import jakarta.annotation.Nullable;
+
+/**
+ * Result of creating a single training of a bulk request.
+ *
+ * @param index position of the training in the request, starting at 0
+ * @param status whether the training was created
+ * @param trainingId ID of the created training, or null if it was rejected
+ * @param error reason of the rejection, or null if the training was created
+ */
+public record TrainingBatchResult(int index, Status status, @Nullable Long trainingId, @Nullable String error) {
+
+    public enum Status {
+        CREATED,
+        REJECTED
+    }
+
+    static TrainingBatchResult created(int index, Long trainingId) {
+        return new TrainingBatchResult(index, Status.CREATED, trainingId, null);
+    }
+
+    static TrainingBatchResult rejected(int index, String error) {
+        return new TrainingBatchResult(index, Status.REJECTED, null, error);
+    }
+
+}
@@ -1,15 +1,26 @@
 package pl.wsb.fitnesstracker.training.internal;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import pl.wsb.fitnesstracker.training.api.ActivityType;
 import pl.wsb.fitnesstracker.training.api.Training;
 import pl.wsb.fitnesstracker.training.api.TrainingProvider;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -22,65 +33,96 @@ import java.util.List;
 @RequiredArgsConstructor
 public class TrainingController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String DEFAULT_PAGE_SIZE = "50";
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final TrainingProvider trainingProvider;
     private final TrainingMapper trainingMapper;
+    private final TrainingExporter trainingExporter;
+    private final ObjectMapper objectMapper;
 
     /**
-     * Retrieves all trainings.
+     * Retrieves one page of all trainings, ordered by ID.
+     * When more trainings are available, the cursor of the next page is returned in the {@value #NEXT_CURSOR_HEADER} header.
      *
-     * @return list of all trainings
+     * @param cursor cursor of the page returned by the previous call, or none for the first page
+     * @param size maximum number of trainings on the page (at most {@value #MAX_PAGE_SIZE})
+     * @return page of trainings
      */
     @GetMapping
-    public List<UserTrainingRes> getAllTrainings() {
-        return trainingProvider.findAllTrainings()
-                .stream()
-                .map(trainingMapper::toUserTrainingRes)
-                .toList();
+    public ResponseEntity<List<UserTrainingRes>> getAllTrainings(@RequestParam(required = false) String cursor,
+                                                                 @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size) {
+        validatePageSize(size);
+        return toPage(trainingProvider.findAllTrainings(TrainingCursor.decode(cursor), size + 1), size);
     }
 
     /**
-     * Retrieves all trainings for a specific user.
+     * Retrieves one page of trainings for a specific user, ordered by ID.
      *
      * @param userId the user ID
-     * @return list of trainings for the user
+     * @param cursor cursor of the page returned by the previous call, or none for the first page
+     * @param size maximum number of trainings on the page (at most {@value #MAX_PAGE_SIZE})
+     * @return page of trainings for the user
      */
     @GetMapping("/{userId}")
-    public List<UserTrainingRes> getTrainingsByUserId(@PathVariable Long userId) {
-        return trainingProvider.findTrainingsByUserId(userId)
-                .stream()
-                .map(trainingMapper::toUserTrainingRes)
-                .toList();
+    public ResponseEntity<List<UserTrainingRes>> getTrainingsByUserId(@PathVariable Long userId,
+                                                                      @RequestParam(required = false) String cursor,
+                                                                      @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size) {
+        validatePageSize(size);
+        return toPage(trainingProvider.findTrainingsByUserId(userId, TrainingCursor.decode(cursor), size + 1), size);
     }
 
     /**
-     * Retrieves all trainings finished after the specified time.
+     * Retrieves one page of trainings finished after the specified time, ordered by ID.
      *
      * @param afterTime the time after which trainings should be finished
-     * @return list of trainings finished after the time
+     * @param cursor cursor of the page returned by the previous call, or none for the first page
+     * @param size maximum number of trainings on the page (at most {@value #MAX_PAGE_SIZE})
+     * @return page of trainings finished after the time
      */
     @GetMapping("/finished/{afterTime}")
-    public List<UserTrainingRes> getFinishedTrainingsAfter(@PathVariable String afterTime) throws ParseException {
+    public ResponseEntity<List<UserTrainingRes>> getFinishedTrainingsAfter(@PathVariable String afterTime,
+                                                                           @RequestParam(required = false) String cursor,
+                                                                           @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size) throws ParseException {
+        validatePageSize(size);
         SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
         Date date = sdf.parse(afterTime);
-        
-        return trainingProvider.findFinishedTrainingsAfter(date)
-                .stream()
-                .map(trainingMapper::toUserTrainingRes)
-                .toList();
+
+        return toPage(trainingProvider.findFinishedTrainingsAfter(date, TrainingCursor.decode(cursor), size + 1), size);
     }
 
     /**
-     * Retrieves all trainings by activity type.
+     * Retrieves one page of trainings by activity type, ordered by ID.
      *
      * @param activityType the activity type
-     * @return list of trainings with the specified activity type
+     * @param cursor cursor of the page returned by the previous call, or none for the first page
+     * @param size maximum number of trainings on the page (at most {@value #MAX_PAGE_SIZE})
+     * @return page of trainings with the specified activity type
      */
     @GetMapping("/activityType")
-    public List<UserTrainingRes> getTrainingsByActivityType(@RequestParam ActivityType activityType) {
-        return trainingProvider.findTrainingsByActivityType(activityType)
-                .stream()
-                .map(trainingMapper::toUserTrainingRes)
-                .toList();
+    public ResponseEntity<List<UserTrainingRes>> getTrainingsByActivityType(@RequestParam ActivityType activityType,
+                                                                            @RequestParam(required = false) String cursor,
+                                                                            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size) {
+        validatePageSize(size);
+        return toPage(trainingProvider.findTrainingsByActivityType(activityType, TrainingCursor.decode(cursor), size + 1), size);
+    }
+
+    /**
+     * Exports all trainings, ordered by ID, streaming them straight to the response body.
+     *
+     * @param format the export format, NDJSON by default
+     * @param response the HTTP response to write to
+     * @throws IOException if writing the response fails
+     */
+    @GetMapping("/export")
+    public void exportTrainings(@RequestParam(defaultValue = "NDJSON") TrainingExportFormat format,
+                                HttpServletResponse response) throws IOException {
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=trainings." + format.getFileExtension());
+        trainingExporter.export(format, response.getOutputStream());
     }
 
     /**
@@ -97,6 +139,37 @@ public class TrainingController {
         return trainingMapper.toUserTrainingRes(createdTraining);
     }
 
+    /**
+     * Creates trainings in bulk from a JSON array.
+     *
+     * @param body the request body
+     * @return result for every training, in the order of the request
+     * @throws IOException if reading the request body fails
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public List<TrainingBatchResult> createTrainings(InputStream body) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Trainings must be sent as a JSON array");
+            }
+            return trainingProvider.createTrainings(readTrainings(parser, JsonToken.END_ARRAY));
+        }
+    }
+
+    /**
+     * Creates trainings in bulk from newline delimited JSON, one training per line.
+     *
+     * @param body the request body
+     * @return result for every training, in the order of the request
+     * @throws IOException if reading the request body fails
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public List<TrainingBatchResult> createTrainingsFromNdjson(InputStream body) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            return trainingProvider.createTrainings(readTrainings(parser, null));
+        }
+    }
+
     /**
      * Updates an existing training.
      *
@@ -109,4 +182,50 @@ public class TrainingController {
         Training updatedTraining = trainingProvider.updateTraining(trainingId, trainingDto);
         return trainingMapper.toUserTrainingRes(updatedTraining);
     }
-}
\ No newline at end of file
+
+    /**
+     * Reads the trainings of a bulk request one by one, so a request over the batch size limit
+     * is rejected without reading it whole. Null trainings are kept, to be rejected by the validation of the batch.
+     *
+     * @param parser the parser of the request body
+     * @param end token ending the trainings, or null when they end with the body
+     * @return the trainings
+     * @throws IOException if reading the request body fails
+     */
+    private static List<TrainingDTO> readTrainings(JsonParser parser, JsonToken end) throws IOException {
+        List<TrainingDTO> trainings = new ArrayList<>();
+        try {
+            while (parser.nextToken() != end) {
+                if (trainings.size() == TrainingProvider.MAX_BATCH_SIZE) {
+                    throw new IllegalArgumentException("At most " + TrainingProvider.MAX_BATCH_SIZE + " trainings can be created at once");
+                }
+                trainings.add(parser.readValueAs(TrainingDTO.class));
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid training after " + trainings.size() + " valid ones: " + e.getOriginalMessage());
+        }
+        return trainings;
+    }
+
+    private static void validatePageSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    /**
+     * Builds the response for a page of trainings fetched with one extra element,
+     * which only signals that a next page exists.
+     */
+    private ResponseEntity<List<UserTrainingRes>> toPage(List<Training> trainings, int size) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        List<Training> page = trainings;
+        if (trainings.size() > size) {
+            page = trainings.subList(0, size);
+            response.header(NEXT_CURSOR_HEADER, TrainingCursor.encode(page.get(size - 1).getId()));
+        }
+        return response.body(page.stream()
+                .map(trainingMapper::toUserTrainingRes)
+                .toList());
+    }
+}
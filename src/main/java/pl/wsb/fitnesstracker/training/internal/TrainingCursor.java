@@ -0,0 +1,55 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque cursor token used for keyset pagination of trainings.
+ * The token encodes the ID of the last training returned on the previous page.
+ */
+final class TrainingCursor {
+
+    /**
+     * ID to continue from when no cursor was given.
+     */
+    static final long FIRST_PAGE = 0L;
+
+    private TrainingCursor() {
+    }
+
+    /**
+     * Encodes the ID of the last training on a page as a cursor token.
+     *
+     * @param lastId ID of the last training on the page
+     * @return the cursor token
+     */
+    static String encode(Long lastId) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(lastId.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor token into the ID of the last training on the previous page.
+     *
+     * @param cursor the cursor token, or null for the first page
+     * @return the ID to continue from
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    static Long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return FIRST_PAGE;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            long lastId = Long.parseLong(decoded);
+            if (lastId < FIRST_PAGE) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return lastId;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+}
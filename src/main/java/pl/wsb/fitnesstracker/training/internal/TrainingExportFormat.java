@@ -0,0 +1,37 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+/**
+ * Formats supported by the trainings export.
+ */
+public enum TrainingExportFormat {
+
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String fileExtension;
+
+    TrainingExportFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    /**
+     * Gets the HTTP content type of the format.
+     *
+     * @return the content type
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Gets the file extension of the format.
+     *
+     * @return the file extension, without the leading dot
+     */
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+}
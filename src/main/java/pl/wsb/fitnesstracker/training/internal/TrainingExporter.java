@@ -0,0 +1,118 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.wsb.fitnesstracker.training.api.Training;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exports all trainings in a streaming fashion.
+ * Trainings are read through a database cursor and written one by one, each detached right after being written,
+ * so the memory used does not depend on the number of exported trainings.
+ * Rows go through a buffered writer, which is flushed to the response only when the buffer fills up and once at the end.
+ */
+@Service
+class TrainingExporter {
+
+    private static final String CSV_HEADER = "userId,firstName,lastName,email,startTime,endTime,activityType,distance,averageSpeed";
+
+    private final TrainingRepository trainingRepository;
+    private final TrainingMapper trainingMapper;
+    private final EntityManager entityManager;
+    private final ObjectWriter jsonWriter;
+
+    /**
+     * Constructor for TrainingExporter.
+     *
+     * @param trainingRepository the training repository
+     * @param trainingMapper the training mapper
+     * @param entityManager the entity manager used to detach exported trainings
+     * @param objectMapper the object mapper used by the REST API, so NDJSON lines match its JSON format
+     */
+    TrainingExporter(TrainingRepository trainingRepository,
+                     TrainingMapper trainingMapper,
+                     EntityManager entityManager,
+                     ObjectMapper objectMapper) {
+        this.trainingRepository = trainingRepository;
+        this.trainingMapper = trainingMapper;
+        this.entityManager = entityManager;
+        this.jsonWriter = objectMapper.writerFor(UserTrainingRes.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+    }
+
+    /**
+     * Writes all trainings, ordered by ID, to the output stream.
+     *
+     * @param format the export format
+     * @param outputStream the stream to write to, left open
+     * @throws IOException if writing fails
+     */
+    @Transactional(readOnly = true)
+    public void export(TrainingExportFormat format, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        if (format == TrainingExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        try (Stream<Training> trainings = trainingRepository.streamAllByOrderByIdAsc()) {
+            Iterator<Training> iterator = trainings.iterator();
+            while (iterator.hasNext()) {
+                Training training = iterator.next();
+                UserTrainingRes row = trainingMapper.toUserTrainingRes(training);
+                if (format == TrainingExportFormat.CSV) {
+                    writeCsvRow(writer, row);
+                } else {
+                    jsonWriter.writeValue(writer, row);
+                }
+                writer.write('\n');
+                entityManager.detach(training);
+                entityManager.detach(training.getUser());
+            }
+        }
+        writer.flush();
+    }
+
+    private static void writeCsvRow(Writer writer, UserTrainingRes row) throws IOException {
+        UserTrainingRes.UserRes user = row.getUser();
+        writer.write(String.join(",",
+                String.valueOf(user.getId()),
+                csvField(user.getFirstName()),
+                csvField(user.getLastName()),
+                csvField(user.getEmail()),
+                formatDate(row.getStartTime()),
+                formatDate(row.getEndTime()),
+                String.valueOf(row.getActivityType()),
+                String.valueOf(row.getDistance()),
+                String.valueOf(row.getAverageSpeed())));
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+
+    private static String formatDate(Date date) {
+        return date == null ? "" : date.toInstant().toString();
+    }
+
+}
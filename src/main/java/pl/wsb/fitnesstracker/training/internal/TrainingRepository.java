@@ -1,26 +1,88 @@
 package pl.wsb.fitnesstracker.training.internal;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import pl.wsb.fitnesstracker.training.api.ActivityType;
 import pl.wsb.fitnesstracker.training.api.Training;
 import pl.wsb.fitnesstracker.user.api.User;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface TrainingRepository extends JpaRepository<Training, Long> {
+public interface TrainingRepository extends JpaRepository<Training, Long>, TrainingTotalsRepository {
     void deleteByUser(User user);
 
     long countByUserAndStartTimeBetween(User user, Date start, Date end);
 
     List<Training> findByUserAndStartTimeBetween(User user, Date start, Date end);
-    
-    List<Training> findByUserId(Long userId);
-    
+
+    /**
+     * Queries filtering by user ID compare the foreign key column directly. Derived {@code findByUserId...} queries
+     * join the users table and filter on the joined ID, which keeps the database from using the trainings index.
+     */
+    @Query("""
+            SELECT t FROM Training t
+            WHERE t.user.id IN :userIds AND t.startTime BETWEEN :start AND :end
+            ORDER BY t.startTime
+            """)
+    List<Training> findByUserIdInAndStartTimeBetweenOrderByStartTime(@Param("userIds") Collection<Long> userIds,
+                                                                     @Param("start") Date start,
+                                                                     @Param("end") Date end);
+
+    /**
+     * Lists in this repository that are mapped to responses load trainings together with their users
+     * in a single query, so the lazy {@link Training#getUser()} association is never fetched row by row.
+     */
+    @Override
+    @EntityGraph(attributePaths = "user")
+    List<Training> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = "user")
+    Optional<Training> findById(Long id);
+
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT t FROM Training t WHERE t.user.id = :userId")
+    List<Training> findByUserId(@Param("userId") Long userId);
+
+    @EntityGraph(attributePaths = "user")
     List<Training> findByEndTimeAfter(Date afterTime);
-    
+
+    @EntityGraph(attributePaths = "user")
     List<Training> findByActivityType(ActivityType activityType);
 
+    @EntityGraph(attributePaths = "user")
+    List<Training> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT t FROM Training t WHERE t.user.id = :userId AND t.id > :id ORDER BY t.id")
+    List<Training> findByUserIdAndIdGreaterThanOrderByIdAsc(@Param("userId") Long userId, @Param("id") Long id, Limit limit);
+
+    @EntityGraph(attributePaths = "user")
+    List<Training> findByEndTimeAfterAndIdGreaterThanOrderByIdAsc(Date afterTime, Long id, Limit limit);
+
+    @EntityGraph(attributePaths = "user")
+    List<Training> findByActivityTypeAndIdGreaterThanOrderByIdAsc(ActivityType activityType, Long id, Limit limit);
+
+    /**
+     * Streams all trainings with their users, ordered by ID.
+     * The stream is backed by a database cursor, so it must be consumed and closed within a transaction.
+     *
+     * @return stream of all trainings
+     */
+    @EntityGraph(attributePaths = "user")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<Training> streamAllByOrderByIdAsc();
+
 }
\ No newline at end of file
@@ -1,17 +1,30 @@
 package pl.wsb.fitnesstracker.training.internal;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.wsb.fitnesstracker.training.api.ActivityTotals;
 import pl.wsb.fitnesstracker.training.api.ActivityType;
+import pl.wsb.fitnesstracker.training.api.CalorieModel;
 import pl.wsb.fitnesstracker.training.api.Training;
 import pl.wsb.fitnesstracker.training.api.TrainingNotFoundException;
 import pl.wsb.fitnesstracker.training.api.TrainingProvider;
+import pl.wsb.fitnesstracker.training.api.TrainingTotals;
+import pl.wsb.fitnesstracker.training.api.TrainingsChangedEvent;
 import pl.wsb.fitnesstracker.user.api.User;
 import pl.wsb.fitnesstracker.user.internal.UserRepository;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -19,6 +32,8 @@ public class TrainingServiceImpl implements TrainingProvider {
 
     private final TrainingRepository trainingRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CalorieModel calorieModel;
 
     @Override
     public Optional<Training> getTraining(final Long trainingId) {
@@ -30,29 +45,142 @@ public class TrainingServiceImpl implements TrainingProvider {
         return trainingRepository.findAll();
     }
 
+    @Override
+    public List<Training> findAllTrainings(Long afterId, int limit) {
+        return trainingRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit));
+    }
+
     @Override
     public List<Training> findTrainingsByUserId(Long userId) {
         return trainingRepository.findByUserId(userId);
     }
 
+    @Override
+    public TrainingTotals getTrainingTotals(Long userId) {
+        return trainingRepository.sumTotalsByUserId(userId, calorieModel);
+    }
+
+    @Override
+    public List<ActivityTotals> getActivityTotals() {
+        return trainingRepository.sumTotalsByUserIdAndActivityType(calorieModel);
+    }
+
+    @Override
+    public List<Training> findTrainingsByUserId(Long userId, Long afterId, int limit) {
+        return trainingRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(userId, afterId, Limit.of(limit));
+    }
+
     @Override
     public List<Training> findFinishedTrainingsAfter(Date afterTime) {
         return trainingRepository.findByEndTimeAfter(afterTime);
     }
 
+    @Override
+    public List<Training> findFinishedTrainingsAfter(Date afterTime, Long afterId, int limit) {
+        return trainingRepository.findByEndTimeAfterAndIdGreaterThanOrderByIdAsc(afterTime, afterId, Limit.of(limit));
+    }
+
     @Override
     public List<Training> findTrainingsByActivityType(ActivityType activityType) {
         return trainingRepository.findByActivityType(activityType);
     }
 
     @Override
+    public List<Training> findTrainingsByActivityType(ActivityType activityType, Long afterId, int limit) {
+        return trainingRepository.findByActivityTypeAndIdGreaterThanOrderByIdAsc(activityType, afterId, Limit.of(limit));
+    }
+
+    @Override
+    @Transactional
     public Training createTraining(Training training) {
-        return trainingRepository.save(training);
+        Training saved = trainingRepository.save(training);
+        eventPublisher.publishEvent(TrainingsChangedEvent.of(null, TrainingsChangedEvent.Snapshot.of(saved)));
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public List<TrainingBatchResult> createTrainings(List<TrainingDTO> trainings) {
+        if (trainings.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " trainings can be created at once");
+        }
+        Set<Long> userIds = trainings.stream()
+                .filter(Objects::nonNull)
+                .map(TrainingDTO::getUserId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        TrainingBatchResult[] results = new TrainingBatchResult[trainings.size()];
+        List<Integer> validIndexes = new ArrayList<>(trainings.size());
+        List<Training> validTrainings = new ArrayList<>(trainings.size());
+        for (int i = 0; i < trainings.size(); i++) {
+            TrainingDTO training = trainings.get(i);
+            String error = validate(training, users);
+            if (error != null) {
+                results[i] = TrainingBatchResult.rejected(i, error);
+                continue;
+            }
+            validIndexes.add(i);
+            validTrainings.add(new Training(users.get(training.getUserId()),
+                    training.getStartTime(),
+                    training.getEndTime(),
+                    training.getActivityType(),
+                    training.getDistance(),
+                    training.getAverageSpeed()));
+        }
+
+        List<Training> saved = trainingRepository.saveAll(validTrainings);
+        for (int i = 0; i < saved.size(); i++) {
+            int index = validIndexes.get(i);
+            results[index] = TrainingBatchResult.created(index, saved.get(i).getId());
+        }
+        if (!saved.isEmpty()) {
+            eventPublisher.publishEvent(new TrainingsChangedEvent(saved.stream()
+                    .map(training -> new TrainingsChangedEvent.Change(null, TrainingsChangedEvent.Snapshot.of(training)))
+                    .toList()));
+        }
+        return List.of(results);
+    }
+
+    /**
+     * Validates a training of a bulk request.
+     *
+     * @param training the training
+     * @param users users referenced by the bulk request, by ID
+     * @return the reason the training is invalid, or null if it is valid
+     */
+    private static String validate(TrainingDTO training, Map<Long, User> users) {
+        if (training == null) {
+            return "Training is required";
+        }
+        if (training.getUserId() == null) {
+            return "User id is required";
+        }
+        if (!users.containsKey(training.getUserId())) {
+            return "User with id " + training.getUserId() + " does not exist";
+        }
+        if (training.getStartTime() == null || training.getEndTime() == null) {
+            return "Start time and end time are required";
+        }
+        if (training.getEndTime().before(training.getStartTime())) {
+            return "End time must not be before start time";
+        }
+        if (training.getActivityType() == null) {
+            return "Activity type is required";
+        }
+        if (training.getDistance() < 0 || training.getAverageSpeed() < 0) {
+            return "Distance and average speed must not be negative";
+        }
+        return null;
     }
 
     @Override
+    @Transactional
     public Training updateTraining(Long trainingId, TrainingDTO training) {
         Training existingTraining = trainingRepository.findById(trainingId).orElseThrow(() -> new TrainingNotFoundException(trainingId));
+        TrainingsChangedEvent.Snapshot before = TrainingsChangedEvent.Snapshot.of(existingTraining);
 
         Long userId = training.getUserId();
         if (userId != null) {
@@ -76,7 +204,9 @@ public class TrainingServiceImpl implements TrainingProvider {
             existingTraining.setAverageSpeed(training.getAverageSpeed());
         }
 
-        return trainingRepository.save(existingTraining);
+        Training saved = trainingRepository.save(existingTraining);
+        eventPublisher.publishEvent(TrainingsChangedEvent.of(before, TrainingsChangedEvent.Snapshot.of(saved)));
+        return saved;
     }
 
 }
\ No newline at end of file
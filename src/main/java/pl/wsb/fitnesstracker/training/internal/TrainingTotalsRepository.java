@@ -0,0 +1,32 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import pl.wsb.fitnesstracker.training.api.ActivityTotals;
+import pl.wsb.fitnesstracker.training.api.CalorieModel;
+import pl.wsb.fitnesstracker.training.api.TrainingTotals;
+
+import java.util.List;
+
+/**
+ * Aggregate queries over trainings applying a {@link CalorieModel}, part of the {@link TrainingRepository}.
+ */
+interface TrainingTotalsRepository {
+
+    /**
+     * Computes the totals of the trainings of a user with a single aggregate query, without loading any training.
+     * Calories of every training are truncated before summing, as in {@link CalorieModel#totalCalories(List)}.
+     *
+     * @param userId id of the user
+     * @param calorieModel the model of calories burned during trainings
+     * @return totals of the trainings of the user, all zero if the user has none
+     */
+    TrainingTotals sumTotalsByUserId(Long userId, CalorieModel calorieModel);
+
+    /**
+     * Computes the totals of the trainings of every user per activity type with a single aggregate query,
+     * without loading any training.
+     *
+     * @param calorieModel the model of calories burned during trainings
+     * @return totals of every user and activity type the user has trainings of
+     */
+    List<ActivityTotals> sumTotalsByUserIdAndActivityType(CalorieModel calorieModel);
+}
@@ -0,0 +1,86 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import pl.wsb.fitnesstracker.training.api.ActivityTotals;
+import pl.wsb.fitnesstracker.training.api.ActivityType;
+import pl.wsb.fitnesstracker.training.api.CalorieModel;
+import pl.wsb.fitnesstracker.training.api.TrainingTotals;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of the TrainingTotalsRepository interface.
+ * The calorie expression of the queries is built from {@link ActivityType#values()}, so a new activity type
+ * is covered as soon as the {@link CalorieModel} has its coefficient, instead of being summed as null.
+ */
+class TrainingTotalsRepositoryImpl implements TrainingTotalsRepository {
+
+    /**
+     * Calories burned during a training, truncated as in {@link CalorieModel#caloriesBurned(ActivityType, double)},
+     * with the coefficient of every activity type bound as a parameter named after it.
+     */
+    private static final String TRAINING_CALORIES = Stream.of(ActivityType.values())
+            .map(activityType -> " WHEN " + ActivityType.class.getName() + "." + activityType.name()
+                    + " THEN :" + parameterName(activityType))
+            .collect(Collectors.joining("", "TRUNC(t.distance * CASE t.activityType", " END)"));
+
+    private static final String SUM_TOTALS_BY_USER_ID = """
+            SELECT new pl.wsb.fitnesstracker.training.api.TrainingTotals(
+                COUNT(t),
+                COALESCE(SUM(t.distance), 0.0),
+                CAST(COALESCE(SUM(%s), 0.0) AS Long))
+            FROM Training t
+            WHERE t.user.id = :userId
+            """.formatted(TRAINING_CALORIES);
+
+    private static final String SUM_TOTALS_BY_USER_ID_AND_ACTIVITY_TYPE = """
+            SELECT new pl.wsb.fitnesstracker.training.api.ActivityTotals(
+                t.user.id,
+                t.activityType,
+                COUNT(t),
+                SUM(t.distance),
+                CAST(SUM(%s) AS Long))
+            FROM Training t
+            WHERE t.user.id IS NOT NULL
+            GROUP BY t.user.id, t.activityType
+            """.formatted(TRAINING_CALORIES);
+
+    private final EntityManager entityManager;
+
+    /**
+     * Constructor for TrainingTotalsRepositoryImpl.
+     *
+     * @param entityManager the entity manager running the queries
+     */
+    TrainingTotalsRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public TrainingTotals sumTotalsByUserId(Long userId, CalorieModel calorieModel) {
+        return withCoefficients(entityManager.createQuery(SUM_TOTALS_BY_USER_ID, TrainingTotals.class), calorieModel)
+                .setParameter("userId", userId)
+                .getSingleResult();
+    }
+
+    @Override
+    public List<ActivityTotals> sumTotalsByUserIdAndActivityType(CalorieModel calorieModel) {
+        return withCoefficients(entityManager.createQuery(SUM_TOTALS_BY_USER_ID_AND_ACTIVITY_TYPE, ActivityTotals.class), calorieModel)
+                .getResultList();
+    }
+
+    private static <T> TypedQuery<T> withCoefficients(TypedQuery<T> query, CalorieModel calorieModel) {
+        for (ActivityType activityType : ActivityType.values()) {
+            query.setParameter(parameterName(activityType), calorieModel.caloriesPerKilometre(activityType));
+        }
+        return query;
+    }
+
+    private static String parameterName(ActivityType activityType) {
+        return activityType.name().toLowerCase(Locale.ROOT);
+    }
+}
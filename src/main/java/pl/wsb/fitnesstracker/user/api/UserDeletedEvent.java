@@ -0,0 +1,10 @@
+package pl.wsb.fitnesstracker.user.api;
+
+/**
+ * Event published within the transaction deleting a {@link User}, before the user row is removed,
+ * so that other modules can remove data referencing the user.
+ *
+ * @param userId ID of the deleted user
+ */
+public record UserDeletedEvent(Long userId) {
+}
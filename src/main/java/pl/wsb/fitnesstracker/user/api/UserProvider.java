@@ -14,6 +14,14 @@ public interface UserProvider {
      */
     Optional<User> getUser(Long userId);
 
+    /**
+     * Retrieves the version of a user, which changes with every update of the user, without loading the user.
+     *
+     * @param userId id of the user
+     * @return An {@link Optional} containing the version of the user, or {@link Optional#empty()} if not found
+     */
+    Optional<Long> getUserVersion(Long userId);
+
     /**
      * Retrieves a user based on their email.
      * If the user with given email is not found, then {@link Optional#empty()} will be returned.
@@ -31,6 +39,16 @@ public interface UserProvider {
      */
     List<User> getUsersByPartOfEmail(String email);
 
+    /**
+     * Retrieves one page of users whose email contains the given fragment (case-insensitive), ordered by ID.
+     *
+     * @param email the email fragment to search for
+     * @param page zero-based page index
+     * @param size maximum number of users on the page
+     * @return A list of users on the requested page whose email contains the given fragment
+     */
+    List<User> getUsersByPartOfEmail(String email, int page, int size);
+
     /**
      * Retrieves all users.
      *
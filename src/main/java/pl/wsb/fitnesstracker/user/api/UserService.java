@@ -18,7 +18,8 @@ public interface UserService {
     User createUser(User user);
 
     /**
-     * Deletes a user by their ID.
+     * Deletes a user by their ID together with their trainings.
+     * Publishes a {@link UserDeletedEvent} before the user is removed.
      *
      * @param id the ID of the user to delete
      */
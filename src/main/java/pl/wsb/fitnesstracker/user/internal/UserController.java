@@ -5,6 +5,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import jakarta.persistence.EntityNotFoundException;
 import pl.wsb.fitnesstracker.user.api.UserMapper;
 import pl.wsb.fitnesstracker.user.api.UserProvider;
@@ -21,6 +22,8 @@ import java.util.List;
 @RequiredArgsConstructor
 class UserController {
 
+    private static final int MAX_EMAIL_SEARCH_PAGE_SIZE = 100;
+
     private final UserService userService;
     private final UserProvider userProvider;
     private final UserMapper userMapper;
@@ -52,18 +55,27 @@ class UserController {
     }
 
     /**
-     * Retrieves a specific user by ID.
+     * Retrieves a specific user by ID, tagged with an entity tag derived from the user version.
+     * When the request carries the current entity tag in If-None-Match, 304 Not Modified is returned
+     * without loading or serializing the user.
      *
      * @param id the user ID
-     * @return the user details
+     * @param request the request, checked for the If-None-Match header
+     * @return the user details, or no body if the user is not modified
      * @throws EntityNotFoundException if user not found
      */
     @GetMapping("/{id}")
-    public ResponseEntity<UserDto> getUserById(@PathVariable Long id) {
+    public ResponseEntity<UserDto> getUserById(@PathVariable Long id, WebRequest request) {
+        String eTag = userProvider.getUserVersion(id)
+                .map(version -> "\"" + version + "\"")
+                .orElseThrow(() -> new EntityNotFoundException("User with ID " + id + " not found"));
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
         return userProvider
                 .getUser(id)
                 .map(userMapper::toDto)
-                .map(ResponseEntity::ok)
+                .map(user -> ResponseEntity.ok().eTag(eTag).body(user))
                 .orElseThrow(() -> new EntityNotFoundException("User with ID " + id + " not found"));
     }
 
@@ -93,15 +105,26 @@ class UserController {
     }
 
     /**
-     * Searches for users by email fragment (case-insensitive).
+     * Searches for users by email fragment (case-insensitive), one page at a time ordered by ID.
      *
      * @param email the email fragment to search
+     * @param page zero-based page index
+     * @param size maximum number of results on the page (at most 100)
      * @return list of users with ID and email only
+     * @throws IllegalArgumentException if the page or size is out of range
      */
     @ResponseStatus(HttpStatus.OK)
     @GetMapping("/email")
-    public List<UserIdAndEmailRes> getByEmail(@RequestParam String email) {
-        return userProvider.getUsersByPartOfEmail(email)
+    public List<UserIdAndEmailRes> getByEmail(@RequestParam String email,
+                                              @RequestParam(defaultValue = "0") int page,
+                                              @RequestParam(defaultValue = "20") int size) {
+        if (page < 0) {
+            throw new IllegalArgumentException("Page index must not be negative");
+        }
+        if (size < 1 || size > MAX_EMAIL_SEARCH_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_EMAIL_SEARCH_PAGE_SIZE);
+        }
+        return userProvider.getUsersByPartOfEmail(email, page, size)
                 .stream()
                 .map(userMapper::toIdAndEmail)
                 .toList();
@@ -0,0 +1,67 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process cache of email to user ID mappings, used to turn lookups by email into primary key lookups.
+ * Entries are only hints - callers must verify that the user loaded by the cached ID still has the requested email.
+ * Setting {@code user.email-cache.max-size} to 0 disables the cache.
+ */
+@Component
+class UserEmailCache {
+
+    private final Map<String, Long> idsByEmail = new ConcurrentHashMap<>();
+    private final int maxSize;
+
+    /**
+     * Creates the cache with the given capacity.
+     *
+     * @param maxSize maximum number of cached entries, the cache is cleared when the limit is reached
+     */
+    UserEmailCache(@Value("${user.email-cache.max-size:10000}") int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the cached user ID for the given email.
+     *
+     * @param email the email to look up
+     * @return an {@link Optional} containing the cached ID, or {@link Optional#empty()} if not cached
+     */
+    Optional<Long> get(String email) {
+        return Optional.ofNullable(idsByEmail.get(email));
+    }
+
+    /**
+     * Caches the user ID for the given email.
+     *
+     * @param email the user's email
+     * @param userId the user's ID
+     */
+    void put(String email, Long userId) {
+        if (maxSize <= 0 || email == null || userId == null) {
+            return;
+        }
+        if (idsByEmail.size() >= maxSize && !idsByEmail.containsKey(email)) {
+            idsByEmail.clear();
+        }
+        idsByEmail.put(email, userId);
+    }
+
+    /**
+     * Removes the cached entry for the given email.
+     *
+     * @param email the email to evict
+     */
+    void evict(String email) {
+        if (email != null) {
+            idsByEmail.remove(email);
+        }
+    }
+
+}
@@ -1,14 +1,19 @@
 package pl.wsb.fitnesstracker.user.internal;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import pl.wsb.fitnesstracker.user.api.User;
 
 import java.time.LocalDate;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
 
 @Repository
@@ -16,29 +21,73 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     /**
      * Query searching users by email address. It matches by exact match.
+     * Served by the unique index on the email column, and by the query cache when it is enabled.
      *
      * @param email email of the user to search
      * @return {@link Optional} containing found user or {@link Optional#empty()} if none matched
      */
-    default Optional<User> findByEmail(String email) {
-        return findAll().stream()
-                .filter(user -> Objects.equals(user.getEmail(), email))
-                .findFirst();
-    }
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Optional<User> findByEmail(String email);
 
     /**
-     * Query searching users by email fragment (case-insensitive).
-     * This implementation uses findAll() and streams as per requirements.
+     * Query searching users by email fragment (case-insensitive), ordered by user ID.
      *
      * @param email email fragment to search
      * @return list of users whose email contains the fragment
      */
     default List<User> findByPartOfEmail(String email) {
-        return findAll().stream()
-                .filter(el -> el.getEmail().toLowerCase().contains(email.toLowerCase()))
-                .toList();
+        return findByEmailContainingIgnoreCase(email, Pageable.unpaged(Sort.by("id")));
     }
 
+    /**
+     * Query searching one page of users by email fragment (case-insensitive).
+     * Matching is done by the database, so only the requested page of users is loaded.
+     * Wildcard characters in the fragment are escaped and matched literally.
+     *
+     * @param email email fragment to search
+     * @param pageable the page to load and its ordering
+     * @return users whose email contains the fragment
+     */
+    List<User> findByEmailContainingIgnoreCase(String email, Pageable pageable);
+
+    /**
+     * Query loading the next chunk of users in ID order, for keyset iteration over the whole table.
+     *
+     * @param id the ID after which users should be loaded
+     * @param limit maximum number of users to load
+     * @return users with ID greater than the given one, ordered by ID
+     */
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Query loading the next chunk of users in ID order, for keyset iteration over a range of IDs.
+     *
+     * @param id the ID after which users should be loaded
+     * @param lastId the last ID of the range, inclusive
+     * @param limit maximum number of users to load
+     * @return users with ID greater than the given one and not greater than the last one, ordered by ID
+     */
+    List<User> findByIdGreaterThanAndIdLessThanEqualOrderByIdAsc(Long id, Long lastId, Limit limit);
+
+    /**
+     * Query returning the version of a user without loading the entity.
+     * Served by the primary key index, and by the query cache when it is enabled.
+     *
+     * @param id the ID of the user
+     * @return the version of the user, or {@link Optional#empty()} if there is no such user
+     */
+    @Query("SELECT u.version FROM User u WHERE u.id = :id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Query returning the greatest user ID.
+     *
+     * @return the greatest user ID, or {@link Optional#empty()} if there are no users
+     */
+    @Query("SELECT MAX(u.id) FROM User u")
+    Optional<Long> findMaxId();
+
     /**
      * Query searching users born before the specified date.
      *
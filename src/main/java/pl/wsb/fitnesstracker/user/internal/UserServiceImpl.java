@@ -3,15 +3,20 @@ package pl.wsb.fitnesstracker.user.internal;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserDeletedEvent;
 import pl.wsb.fitnesstracker.user.api.UserProvider;
 import pl.wsb.fitnesstracker.user.api.UserService;
 import pl.wsb.fitnesstracker.training.internal.TrainingRepository;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -21,6 +26,8 @@ class UserServiceImpl implements UserService, UserProvider {
 
     private final UserRepository userRepository;
     private final TrainingRepository trainingRepository;
+    private final UserEmailCache userEmailCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -29,7 +36,9 @@ class UserServiceImpl implements UserService, UserProvider {
         if (user.getId() != null) {
             throw new IllegalArgumentException("User has already DB ID, update is not permitted!");
         }
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userEmailCache.put(saved.getEmail(), saved.getId());
+        return saved;
     }
 
     @Override
@@ -37,9 +46,26 @@ class UserServiceImpl implements UserService, UserProvider {
         return userRepository.findById(userId);
     }
 
+    @Override
+    public Optional<Long> getUserVersion(final Long userId) {
+        return userRepository.findVersionById(userId);
+    }
+
     @Override
     public Optional<User> getUserByEmail(final String email) {
-        return userRepository.findByEmail(email);
+        Optional<Long> cachedId = userEmailCache.get(email);
+        if (cachedId.isPresent()) {
+            Optional<User> cached = userRepository.findById(cachedId.get())
+                    .filter(user -> Objects.equals(user.getEmail(), email));
+            if (cached.isPresent()) {
+                return cached;
+            }
+            userEmailCache.evict(email);
+        }
+
+        Optional<User> user = userRepository.findByEmail(email);
+        user.ifPresent(found -> userEmailCache.put(email, found.getId()));
+        return user;
     }
 
     @Override
@@ -47,6 +73,11 @@ class UserServiceImpl implements UserService, UserProvider {
         return userRepository.findByPartOfEmail(email);
     }
 
+    @Override
+    public List<User> getUsersByPartOfEmail(final String email, final int page, final int size) {
+        return userRepository.findByEmailContainingIgnoreCase(email, PageRequest.of(page, size, Sort.by("id")));
+    }
+
     @Override
     public List<User> findAllUsers() {
         return userRepository.findAll();
@@ -57,10 +88,12 @@ class UserServiceImpl implements UserService, UserProvider {
     public void deleteUserById(Long id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("User with ID " + id + " not found"));
-        
+
+        eventPublisher.publishEvent(new UserDeletedEvent(id));
         trainingRepository.deleteByUser(user);
         
         userRepository.deleteById(id);
+        userEmailCache.evict(user.getEmail());
     }
 
     @Override
@@ -71,7 +104,10 @@ class UserServiceImpl implements UserService, UserProvider {
 
         if (firstName != null) user.setFirstName(firstName);
         if (lastName != null) user.setLastName(lastName);
-        if (email != null) user.setEmail(email);
+        if (email != null && !email.equals(user.getEmail())) {
+            userEmailCache.evict(user.getEmail());
+            user.setEmail(email);
+        }
         if (birthdate != null) user.setBirthdate(birthdate);
 
         userRepository.save(user);
@@ -0,0 +1,70 @@
+-- Initial schema of the FitnessTracker application.
+-- Every index below serves a repository query; TrainingQueryPlanTest, UserQueryPlanTest and StatisticsQueryPlanTest
+-- fail when one of them stops being used.
+
+create sequence users_seq start with 1 increment by 50;
+create sequence trainings_seq start with 1 increment by 50;
+create sequence statistics_seq start with 1 increment by 50;
+create sequence training_rollups_seq start with 1 increment by 50;
+
+create table users (
+    id bigint not null,
+    first_name varchar(255) not null,
+    last_name varchar(255) not null,
+    birthdate date not null,
+    email varchar(255) not null,
+    primary key (id),
+    constraint uk_users_email unique (email)
+);
+
+-- UserRepository.findByBirthdateBefore
+create index idx_users_birthdate on users (birthdate);
+
+create table trainings (
+    id bigint not null,
+    user_id bigint,
+    start_time timestamp(6) not null,
+    end_time timestamp(6) not null,
+    activity_type tinyint not null,
+    distance float(53),
+    average_speed float(53),
+    primary key (id),
+    constraint fk_trainings_user foreign key (user_id) references users (id)
+);
+
+-- Trainings of a user, alone or within a time range (summaries, exports per user, keyset pages per user).
+create index idx_trainings_user_start_time on trainings (user_id, start_time);
+-- TrainingRepository.findByEndTimeAfter and its keyset variant
+create index idx_trainings_end_time on trainings (end_time);
+-- TrainingRepository.findByActivityType and its keyset variant
+create index idx_trainings_activity_type on trainings (activity_type);
+
+create table statistics (
+    id bigint not null,
+    user_id bigint,
+    total_trainings integer not null,
+    total_distance float(53),
+    total_calories_burned integer,
+    primary key (id),
+    constraint uk_statistics_user unique (user_id),
+    constraint fk_statistics_user foreign key (user_id) references users (id)
+);
+
+-- StatisticsRepository.findByTotalCaloriesBurnedGreaterThan
+create index idx_statistics_total_calories_burned on statistics (total_calories_burned);
+
+create table training_rollups (
+    id bigint not null,
+    user_id bigint not null,
+    activity_type tinyint not null,
+    granularity varchar(5) not null,
+    period_start date not null,
+    trainings integer not null,
+    distance float(53) not null,
+    duration_seconds bigint not null,
+    calories_burned integer not null,
+    primary key (id),
+    -- Also serves every lookup of rollups by user, which all filter on the user first.
+    constraint uk_training_rollups_period unique (user_id, granularity, period_start, activity_type),
+    constraint fk_training_rollups_user foreign key (user_id) references users (id)
+);
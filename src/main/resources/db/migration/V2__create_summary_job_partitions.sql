@@ -0,0 +1,16 @@
+-- Checkpoints of the monthly training summary job, one row per range of user IDs and summarized month.
+
+create sequence summary_job_partitions_seq start with 1 increment by 50;
+
+create table summary_job_partitions (
+    id bigint not null,
+    period_start date not null,
+    first_user_id bigint not null,
+    last_user_id bigint not null,
+    processed_up_to bigint not null,
+    emails_sent integer not null,
+    completed_at timestamp(6) with time zone,
+    primary key (id),
+    -- Also serves loading the partitions of a month.
+    constraint uk_summary_job_partitions_range unique (period_start, first_user_id)
+);
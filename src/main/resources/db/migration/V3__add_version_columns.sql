@@ -0,0 +1,7 @@
+-- Optimistic locking versions, also used as the entity tags of the users and statistics read endpoints.
+
+alter table users add column version bigint default 0 not null;
+
+alter table trainings add column version bigint default 0 not null;
+
+alter table statistics add column version bigint default 0 not null;
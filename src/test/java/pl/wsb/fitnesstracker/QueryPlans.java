@@ -0,0 +1,76 @@
+package pl.wsb.fitnesstracker;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Verifies that repository queries are served by indexes.
+ * Registered as Hibernate's statement inspector with {@link #RECORDING_PROPERTY}, it records the SQL of every statement
+ * Hibernate prepares, so that {@link #assertUsesIndexes} can run H2's {@code EXPLAIN} on exactly the SQL a repository
+ * method generates.
+ */
+public class QueryPlans implements StatementInspector {
+
+    /**
+     * Test property registering this class as Hibernate's statement inspector.
+     */
+    public static final String RECORDING_PROPERTY =
+            "spring.jpa.properties.hibernate.session_factory.statement_inspector=pl.wsb.fitnesstracker.QueryPlans";
+
+    private static final String TABLE_SCAN = ".tableScan";
+
+    private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        statements.add(sql);
+        return sql;
+    }
+
+    /**
+     * Runs the query and fails if the plan of any select, update or delete statement it issued scans a whole table.
+     * Parameters are left unbound, so the plans do not depend on test data.
+     *
+     * @param jdbcTemplate the template used to run {@code EXPLAIN}
+     * @param query the repository call to check
+     */
+    public static void assertUsesIndexes(JdbcTemplate jdbcTemplate, Runnable query) {
+        statements.clear();
+        query.run();
+        List<String> queries = statements.stream()
+                .filter(QueryPlans::isQuery)
+                .toList();
+        assertFalse(queries.isEmpty(), "No query was run");
+
+        for (String sql : queries) {
+            String plan = explain(jdbcTemplate, sql);
+            assertFalse(plan.contains(TABLE_SCAN), () -> "Query scans a whole table:\n" + plan);
+        }
+    }
+
+    private static boolean isQuery(String sql) {
+        String statement = sql.stripLeading().toLowerCase(Locale.ROOT);
+        return (statement.startsWith("select") && !statement.contains("next value for"))
+                || statement.startsWith("update")
+                || statement.startsWith("delete");
+    }
+
+    private static String explain(JdbcTemplate jdbcTemplate, String sql) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql);
+                 ResultSet result = statement.executeQuery()) {
+                result.next();
+                return result.getString(1);
+            }
+        });
+    }
+}
@@ -10,6 +10,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -147,6 +148,24 @@ class GlobalExceptionHandlerTest {
         assertNotNull(body.get("timestamp"));
     }
 
+    @Test
+    void shouldHandleOptimisticLockingFailureException() {
+        // Given
+        ObjectOptimisticLockingFailureException exception = new ObjectOptimisticLockingFailureException("User", 1L);
+
+        // When
+        ResponseEntity<Map<String, Object>> response = globalExceptionHandler.handleOptimisticLockingFailureException(exception);
+
+        // Then
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        Map<String, Object> body = response.getBody();
+        assertNotNull(body);
+        assertEquals(409, body.get("status"));
+        assertEquals("Conflict", body.get("error"));
+        assertNotNull(body.get("message"));
+        assertNotNull(body.get("timestamp"));
+    }
+
     @Test
     void shouldHandleNoResourceFoundException() {
         // Given
@@ -0,0 +1,62 @@
+package pl.wsb.fitnesstracker.loader;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.internal.UserRepository;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the generator against a private database, outside of a test transaction,
+ * because the parallel chunks insert through their own connections.
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:generator")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class SyntheticDataGeneratorTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void shouldGenerateConfiguredNumberOfUsersAndTrainings() {
+        SyntheticDataProperties properties = new SyntheticDataProperties();
+        properties.setUsers(25);
+        properties.setTrainingsPerUser(3);
+        properties.setBatchSize(10);
+        properties.setThreads(2);
+
+        new SyntheticDataGenerator(jdbcTemplate, properties).generate();
+
+        assertEquals(25, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Integer.class));
+        assertEquals(25, jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT email) FROM users", Integer.class));
+        assertEquals(75, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM trainings", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM trainings t LEFT JOIN users u ON u.id = t.user_id WHERE u.id IS NULL", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM trainings WHERE distance <= 0 OR end_time <= start_time", Integer.class));
+    }
+
+    @Test
+    void shouldReserveIdsThatDoNotCollideWithEntitiesSavedLater() {
+        SyntheticDataProperties properties = new SyntheticDataProperties();
+        properties.setUsers(30);
+        properties.setTrainingsPerUser(1);
+
+        new SyntheticDataGenerator(jdbcTemplate, properties).generate();
+        User saved = userRepository.save(new User("Jane", "Doe", LocalDate.of(1990, 1, 1), "jane.doe@example.com"));
+
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE id = ?", Integer.class, saved.getId()));
+    }
+}
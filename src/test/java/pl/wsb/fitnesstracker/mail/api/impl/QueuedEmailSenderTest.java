@@ -0,0 +1,235 @@
+package pl.wsb.fitnesstracker.mail.api.impl;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mock.env.MockEnvironment;
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+import pl.wsb.fitnesstracker.mail.internal.MailProperties;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class QueuedEmailSenderTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private QueuedEmailSender sender;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (sender != null) {
+            sender.stop();
+        }
+    }
+
+    private static MailProperties mailProperties() {
+        MailProperties properties = new MailProperties();
+        properties.setFrom("noreply@fitnesstracker.com");
+        properties.getQueue().setWorkers(1);
+        properties.getQueue().setBatchSize(10);
+        properties.getQueue().setInitialBackoff(Duration.ofMillis(10));
+        return properties;
+    }
+
+    private QueuedEmailSender startSender(JavaMailSender javaMailSender, MailProperties properties) {
+        sender = new QueuedEmailSender(javaMailSender,
+                new MimeMessageFactory(javaMailSender, properties),
+                properties,
+                meterRegistry,
+                new MockEnvironment());
+        sender.start();
+        return sender;
+    }
+
+    @Test
+    void shouldDeliverQueuedEmailsThroughSmtp() {
+        JavaMailSenderImpl javaMailSender = new JavaMailSenderImpl();
+        javaMailSender.setHost("localhost");
+        javaMailSender.setPort(ServerSetupTest.SMTP.getPort());
+        QueuedEmailSender queuedSender = startSender(javaMailSender, mailProperties());
+
+        for (int i = 0; i < 3; i++) {
+            queuedSender.send(new EmailDto("user" + i + "@example.com", "Summary " + i, "<p>Hello</p>", true));
+        }
+
+        await().atMost(Duration.ofSeconds(10))
+                .until(() -> greenMail.getReceivedMessages().length == 3);
+        assertEquals(0.0, meterRegistry.get("mail.queue.size").gauge().value());
+        assertTrue(meterRegistry.get("mail.send.latency").timer().count() >= 1);
+        assertEquals(0.0, meterRegistry.get("mail.send.failures").counter().count());
+    }
+
+    @Test
+    void shouldReturnFromSendAndWaitOnceEmailsAreDelivered() {
+        JavaMailSenderImpl javaMailSender = new JavaMailSenderImpl();
+        javaMailSender.setHost("localhost");
+        javaMailSender.setPort(ServerSetupTest.SMTP.getPort());
+        QueuedEmailSender queuedSender = startSender(javaMailSender, mailProperties());
+
+        queuedSender.sendAndWait(List.of(
+                new EmailDto("first@example.com", "Summary", "Hello", false),
+                new EmailDto("second@example.com", "Summary", "Hello", false)));
+
+        assertEquals(2, greenMail.getReceivedMessages().length);
+    }
+
+    @Test
+    void shouldWaitForFreeSpaceInFullQueueWhenSendingAndWaiting() {
+        JavaMailSenderImpl javaMailSender = new JavaMailSenderImpl();
+        javaMailSender.setHost("localhost");
+        javaMailSender.setPort(ServerSetupTest.SMTP.getPort());
+        MailProperties properties = mailProperties();
+        properties.getQueue().setCapacity(1);
+        properties.getQueue().setOfferTimeout(Duration.ofMillis(1));
+        QueuedEmailSender queuedSender = startSender(javaMailSender, properties);
+
+        queuedSender.sendAndWait(List.of(
+                new EmailDto("first@example.com", "Summary", "Hello", false),
+                new EmailDto("second@example.com", "Summary", "Hello", false),
+                new EmailDto("third@example.com", "Summary", "Hello", false)));
+
+        assertEquals(3, greenMail.getReceivedMessages().length);
+    }
+
+    @Test
+    void shouldWithdrawQueuedEmailsWhenSendAndWaitIsInterrupted() throws Exception {
+        JavaMailSender javaMailSender = mock(JavaMailSender.class);
+        when(javaMailSender.createMimeMessage()).thenAnswer(invocation -> new JavaMailSenderImpl().createMimeMessage());
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            sending.countDown();
+            release.await();
+            return null;
+        }).when(javaMailSender).send(any(MimeMessage[].class));
+        MailProperties properties = mailProperties();
+        properties.getQueue().setBatchSize(1);
+        QueuedEmailSender queuedSender = startSender(javaMailSender, properties);
+
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        Thread caller = new Thread(() -> {
+            try {
+                queuedSender.sendAndWait(List.of(
+                        new EmailDto("first@example.com", "Summary", "Hello", false),
+                        new EmailDto("second@example.com", "Summary", "Hello", false),
+                        new EmailDto("third@example.com", "Summary", "Hello", false)));
+            } catch (IllegalStateException e) {
+                failure.set(e);
+            }
+        });
+        caller.start();
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+        await().atMost(Duration.ofSeconds(5)).until(() -> meterRegistry.get("mail.queue.size").gauge().value() == 2.0);
+        caller.interrupt();
+        caller.join(5_000);
+
+        assertFalse(caller.isAlive());
+        assertInstanceOf(InterruptedException.class, failure.get().getCause());
+        assertEquals(0.0, meterRegistry.get("mail.queue.size").gauge().value());
+        release.countDown();
+        sender.stop();
+        sender = null;
+        verify(javaMailSender, times(1)).send(any(MimeMessage[].class));
+    }
+
+    @Test
+    void shouldFailSendAndWaitWhenEmailsAreDropped() {
+        JavaMailSender javaMailSender = mock(JavaMailSender.class);
+        when(javaMailSender.createMimeMessage()).thenAnswer(invocation -> new JavaMailSenderImpl().createMimeMessage());
+        doThrow(new MailSendException("SMTP server unavailable")).when(javaMailSender).send(any(MimeMessage[].class));
+        MailProperties properties = mailProperties();
+        properties.getQueue().setMaxAttempts(2);
+        QueuedEmailSender queuedSender = startSender(javaMailSender, properties);
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> queuedSender.sendAndWait(List.of(new EmailDto("user@example.com", "Summary", "Hello", false))));
+
+        assertInstanceOf(MailSendException.class, exception.getCause());
+        assertEquals(1.0, meterRegistry.get("mail.send.failures").counter().count());
+    }
+
+    @Test
+    void shouldRetryOnlyFailedMessages() {
+        JavaMailSender javaMailSender = mock(JavaMailSender.class);
+        when(javaMailSender.createMimeMessage()).thenAnswer(invocation -> new JavaMailSenderImpl().createMimeMessage());
+        doAnswer(invocation -> {
+            MimeMessage failed = invocation.getArgument(0);
+            throw new MailSendException(Map.of(failed, new RuntimeException("Connection reset")));
+        }).doNothing().when(javaMailSender).send(any(MimeMessage[].class));
+        QueuedEmailSender queuedSender = startSender(javaMailSender, mailProperties());
+
+        queuedSender.send(new EmailDto("user@example.com", "Summary", "Hello", false));
+
+        await().atMost(Duration.ofSeconds(5))
+                .untilAsserted(() -> verify(javaMailSender, times(2)).send(any(MimeMessage[].class)));
+        assertEquals(0.0, meterRegistry.get("mail.send.failures").counter().count());
+    }
+
+    @Test
+    void shouldDropMessagesAfterMaxAttempts() {
+        JavaMailSender javaMailSender = mock(JavaMailSender.class);
+        when(javaMailSender.createMimeMessage()).thenAnswer(invocation -> new JavaMailSenderImpl().createMimeMessage());
+        doThrow(new MailSendException("SMTP server unavailable")).when(javaMailSender).send(any(MimeMessage[].class));
+        MailProperties properties = mailProperties();
+        properties.getQueue().setMaxAttempts(2);
+        QueuedEmailSender queuedSender = startSender(javaMailSender, properties);
+
+        queuedSender.send(new EmailDto("user@example.com", "Summary", "Hello", false));
+
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> meterRegistry.get("mail.send.failures").counter().count() == 1.0);
+        verify(javaMailSender, times(2)).send(any(MimeMessage[].class));
+    }
+
+    @Test
+    void shouldRejectEmailsWhenQueueIsFull() {
+        CountDownLatch release = new CountDownLatch(1);
+        JavaMailSender javaMailSender = mock(JavaMailSender.class);
+        when(javaMailSender.createMimeMessage()).thenAnswer(invocation -> new JavaMailSenderImpl().createMimeMessage());
+        doAnswer(invocation -> release.await(5, TimeUnit.SECONDS)).when(javaMailSender).send(any(MimeMessage[].class));
+        MailProperties properties = mailProperties();
+        properties.getQueue().setCapacity(1);
+        properties.getQueue().setOfferTimeout(Duration.ofMillis(10));
+        QueuedEmailSender queuedSender = startSender(javaMailSender, properties);
+
+        queuedSender.send(new EmailDto("first@example.com", "Summary", "Hello", false));
+        await().atMost(Duration.ofSeconds(5))
+                .untilAsserted(() -> verify(javaMailSender).send(any(MimeMessage[].class)));
+        queuedSender.send(new EmailDto("second@example.com", "Summary", "Hello", false));
+
+        assertThrows(IllegalStateException.class,
+                () -> queuedSender.send(new EmailDto("third@example.com", "Summary", "Hello", false)));
+        release.countDown();
+    }
+
+    @Test
+    void shouldRejectEmailsAfterStop() throws InterruptedException {
+        QueuedEmailSender queuedSender = startSender(mock(JavaMailSender.class), mailProperties());
+        queuedSender.stop();
+        sender = null;
+
+        assertThrows(IllegalStateException.class,
+                () -> queuedSender.send(new EmailDto("user@example.com", "Summary", "Hello", false)));
+    }
+}
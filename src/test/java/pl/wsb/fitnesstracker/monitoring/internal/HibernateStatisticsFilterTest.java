@@ -0,0 +1,60 @@
+package pl.wsb.fitnesstracker.monitoring.internal;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HibernateStatisticsFilterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final HibernateStatisticsFilter filter = new HibernateStatisticsFilter(meterRegistry, 1);
+
+    private final HibernateRequestStatistics.SessionListener listener = new HibernateRequestStatistics.SessionListener();
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/trainings/1");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/v1/trainings/{userId}");
+        return request;
+    }
+
+    @Test
+    void shouldRecordStatementsFlushesAndSlowStatementsOfRequest() throws Exception {
+        filter.doFilter(request(), new MockHttpServletResponse(), (request, response) -> {
+            listener.jdbcExecuteStatementStart();
+            listener.jdbcExecuteStatementEnd();
+            listener.jdbcExecuteBatchStart();
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            listener.jdbcExecuteBatchEnd();
+            listener.flushEnd(1, 0);
+        });
+
+        assertEquals(2.0, meterRegistry.get("hibernate.request.statements").tag("uri", "/v1/trainings/{userId}").summary().totalAmount());
+        assertEquals(1.0, meterRegistry.get("hibernate.request.flushes").summary().totalAmount());
+        assertEquals(1.0, meterRegistry.get("hibernate.request.statements.slow").counter().count());
+        assertTrue(meterRegistry.get("hibernate.request.statements.time").timer().totalTime(TimeUnit.MILLISECONDS) >= 5);
+    }
+
+    @Test
+    void shouldNotCountStatementsOutsideOfRequests() throws Exception {
+        filter.doFilter(request(), new MockHttpServletResponse(), (request, response) -> {
+        });
+
+        listener.jdbcExecuteStatementStart();
+        listener.jdbcExecuteStatementEnd();
+
+        assertEquals(0.0, meterRegistry.get("hibernate.request.statements").summary().totalAmount());
+        assertTrue(meterRegistry.find("hibernate.request.statements.slow").counters().isEmpty());
+    }
+}
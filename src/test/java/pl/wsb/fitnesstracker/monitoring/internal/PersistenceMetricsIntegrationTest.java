@@ -0,0 +1,81 @@
+package pl.wsb.fitnesstracker.monitoring.internal;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.internal.UserRepository;
+
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifies that repository and Hibernate metrics are recorded and exported through the actuator.
+ */
+@IntegrationTest
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:monitoring")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class PersistenceMetricsIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void shouldRecordRepositoryAndHibernateMetricsOfRequest() throws Exception {
+        User user = userRepository.save(new User("John", "Doe", LocalDate.of(1990, 1, 1), "john@monitoring.com"));
+
+        mockMvc.perform(get("/v1/users/{id}", user.getId()))
+                .andExpect(status().isOk());
+
+        assertTrue(meterRegistry.get("spring.data.repository.invocations")
+                .tag("repository", "UserRepository")
+                .tag("method", "findById")
+                .timer().count() >= 1);
+        DistributionSummary statements = meterRegistry.get("hibernate.request.statements")
+                .tag("method", "GET")
+                .tag("uri", "/v1/users/{id}")
+                .summary();
+        assertEquals(1, statements.count());
+        assertTrue(statements.totalAmount() >= 1);
+        assertEquals(1.0, meterRegistry.get("hibernate.request.entity.loads")
+                .tag("uri", "/v1/users/{id}")
+                .summary().totalAmount());
+        assertTrue(meterRegistry.get("hibernate.statements").functionCounter().count() >= 1);
+    }
+
+    @Test
+    void shouldExportMetricsInPrometheusFormat() throws Exception {
+        mockMvc.perform(get("/v1/users"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("hibernate_request_statements_count{method=\"GET\",uri=\"/v1/users\"")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds_count{")))
+                .andExpect(content().string(containsString("hibernate_statements_total{")));
+    }
+}
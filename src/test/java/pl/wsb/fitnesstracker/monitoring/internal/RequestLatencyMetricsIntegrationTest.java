@@ -0,0 +1,47 @@
+package pl.wsb.fitnesstracker.monitoring.internal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import pl.wsb.fitnesstracker.IntegrationTest;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifies that request latencies are exported as histograms with SLO buckets, percentiles and exemplars.
+ */
+@IntegrationTest
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:latency",
+        "management.tracing.sampling.probability=1.0"})
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class RequestLatencyMetricsIntegrationTest {
+
+    private static final String OPEN_METRICS = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void shouldExportLatencyHistogramOfRouteWithSloBucketsPercentilesAndExemplars() throws Exception {
+        mockMvc.perform(get("/v1/trainings"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus").accept(OPEN_METRICS))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(
+                        "http_server_requests_seconds_bucket{error=\"none\",exception=\"none\",method=\"GET\",outcome=\"SUCCESS\",status=\"200\",uri=\"/v1/trainings\",le=\"0.25\"}")))
+                .andExpect(content().string(containsString(
+                        "http_server_requests_seconds{error=\"none\",exception=\"none\",method=\"GET\",outcome=\"SUCCESS\",status=\"200\",uri=\"/v1/trainings\",quantile=\"0.999\"}")))
+                .andExpect(content().string(matchesPattern(
+                        "(?s).*http_server_requests_seconds_bucket\\{[^}]*uri=\"/v1/trainings\"[^}]*} 1\\.0 # \\{span_id=\"\\w+\",trace_id=\"\\w+\"}.*")));
+    }
+}
@@ -0,0 +1,143 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import pl.wsb.fitnesstracker.statistics.api.LeaderboardMetric;
+import pl.wsb.fitnesstracker.training.api.ActivityTotals;
+import pl.wsb.fitnesstracker.training.api.ActivityType;
+import pl.wsb.fitnesstracker.training.api.CalorieModel;
+import pl.wsb.fitnesstracker.training.api.TrainingProvider;
+import pl.wsb.fitnesstracker.training.api.TrainingsChangedEvent;
+import pl.wsb.fitnesstracker.user.api.UserDeletedEvent;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LeaderboardServiceImplTest {
+
+    private final TrainingProvider trainingProvider = mock(TrainingProvider.class);
+
+    private final LeaderboardServiceImpl leaderboardService = new LeaderboardServiceImpl(trainingProvider, CalorieModel.DEFAULT);
+
+    @BeforeEach
+    void setUp() {
+        when(trainingProvider.getActivityTotals()).thenReturn(List.of(
+                new ActivityTotals(1L, ActivityType.RUNNING, 2, 10.0, 1000),
+                new ActivityTotals(1L, ActivityType.CYCLING, 1, 30.0, 1500),
+                new ActivityTotals(2L, ActivityType.RUNNING, 4, 20.0, 2000)));
+        leaderboardService.rebuild();
+    }
+
+    private static TrainingsChangedEvent.Snapshot snapshot(Long userId, ActivityType activityType, double distance) {
+        return new TrainingsChangedEvent.Snapshot(userId, activityType, new Date(0), new Date(3_600_000), distance);
+    }
+
+    @Test
+    void shouldRankUsersByTotalsOfAllActivityTypes() {
+        List<LeaderboardEntryDTO> top = leaderboardService.getTopUsers(LeaderboardMetric.CALORIES, null, 10);
+
+        assertEquals(List.of(
+                new LeaderboardEntryDTO(1, 1L, 3, 40.0, 2500),
+                new LeaderboardEntryDTO(2, 2L, 4, 20.0, 2000)), top);
+    }
+
+    @Test
+    void shouldRankUsersByTotalsOfSingleActivityType() {
+        assertEquals(List.of(new LeaderboardEntryDTO(1, 2L, 4, 20.0, 2000), new LeaderboardEntryDTO(2, 1L, 2, 10.0, 1000)),
+                leaderboardService.getTopUsers(LeaderboardMetric.CALORIES, ActivityType.RUNNING, 10));
+        assertEquals(List.of(new LeaderboardEntryDTO(1, 1L, 1, 30.0, 1500)),
+                leaderboardService.getTopUsers(LeaderboardMetric.DISTANCE, ActivityType.CYCLING, 10));
+        assertTrue(leaderboardService.getTopUsers(LeaderboardMetric.TRAININGS, ActivityType.TENNIS, 10).isEmpty());
+    }
+
+    @Test
+    void shouldApplyChangesOfTrainings() {
+        leaderboardService.onTrainingsChanged(new TrainingsChangedEvent(List.of(
+                new TrainingsChangedEvent.Change(null, snapshot(2L, ActivityType.RUNNING, 10.0)),
+                new TrainingsChangedEvent.Change(snapshot(1L, ActivityType.CYCLING, 30.0), snapshot(1L, ActivityType.WALKING, 30.0)))));
+
+        assertEquals(List.of(
+                new LeaderboardEntryDTO(1, 2L, 5, 30.0, 3000),
+                new LeaderboardEntryDTO(2, 1L, 3, 40.0, 2800)),
+                leaderboardService.getTopUsers(LeaderboardMetric.CALORIES, null, 10));
+        assertTrue(leaderboardService.getTopUsers(LeaderboardMetric.CALORIES, ActivityType.CYCLING, 10).isEmpty());
+        assertEquals(List.of(new LeaderboardEntryDTO(1, 1L, 1, 30.0, 1800)),
+                leaderboardService.getTopUsers(LeaderboardMetric.CALORIES, ActivityType.WALKING, 10));
+    }
+
+    @Test
+    void shouldRemoveDeletedUserFromAllRankings() {
+        leaderboardService.onUserDeleted(new UserDeletedEvent(1L));
+
+        assertEquals(List.of(2L), leaderboardService.getTopUsers(LeaderboardMetric.DISTANCE, null, 10).stream()
+                .map(LeaderboardEntryDTO::userId)
+                .toList());
+        assertTrue(leaderboardService.getTopUsers(LeaderboardMetric.DISTANCE, ActivityType.CYCLING, 10).isEmpty());
+    }
+
+    @Test
+    void shouldReplayChangesCommittedDuringRebuild() {
+        when(trainingProvider.getActivityTotals()).thenAnswer(invocation -> {
+            leaderboardService.onTrainingsChanged(TrainingsChangedEvent.of(null, snapshot(3L, ActivityType.TENNIS, 5.0)));
+            leaderboardService.onUserDeleted(new UserDeletedEvent(2L));
+            return List.of(
+                    new ActivityTotals(1L, ActivityType.RUNNING, 2, 10.0, 1000),
+                    new ActivityTotals(2L, ActivityType.RUNNING, 4, 20.0, 2000));
+        });
+
+        leaderboardService.rebuild();
+
+        assertEquals(List.of(1L, 3L), leaderboardService.getTopUsers(LeaderboardMetric.DISTANCE, null, 10).stream()
+                .map(LeaderboardEntryDTO::userId)
+                .toList());
+        assertEquals(1, leaderboardService.getTopUsers(LeaderboardMetric.TRAININGS, ActivityType.TENNIS, 10).size());
+    }
+
+    @Test
+    void shouldRebuildAgainWhenChangeWasBeingCommittedWhenQueryStarted() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            leaderboardService.onTrainingsChanged(TrainingsChangedEvent.of(null, snapshot(3L, ActivityType.TENNIS, 5.0)));
+            TransactionSynchronizationUtils.triggerBeforeCommit(false);
+            List<ActivityTotals> totalsAfterCommit = List.of(
+                    new ActivityTotals(1L, ActivityType.RUNNING, 2, 10.0, 1000),
+                    new ActivityTotals(3L, ActivityType.TENNIS, 1, 5.0, 400));
+            when(trainingProvider.getActivityTotals()).thenAnswer(invocation -> {
+                TransactionSynchronizationUtils.triggerAfterCommit();
+                TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+                return totalsAfterCommit;
+            }).thenReturn(totalsAfterCommit);
+
+            leaderboardService.rebuild();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(trainingProvider, times(3)).getActivityTotals();
+        assertEquals(List.of(new LeaderboardEntryDTO(1, 3L, 1, 5.0, 400)),
+                leaderboardService.getTopUsers(LeaderboardMetric.TRAININGS, ActivityType.TENNIS, 10));
+    }
+
+    @Test
+    void shouldKeepRankingsWhenRebuildFails() {
+        when(trainingProvider.getActivityTotals()).thenThrow(new IllegalStateException("Database unavailable"));
+
+        assertThrows(IllegalStateException.class, leaderboardService::rebuild);
+        leaderboardService.onTrainingsChanged(TrainingsChangedEvent.of(null, snapshot(2L, ActivityType.RUNNING, 10.0)));
+
+        assertEquals(List.of(new LeaderboardEntryDTO(1, 2L, 5, 30.0, 3000), new LeaderboardEntryDTO(2, 1L, 3, 40.0, 2500)),
+                leaderboardService.getTopUsers(LeaderboardMetric.CALORIES, null, 10));
+    }
+
+    @Test
+    void shouldRejectInvalidLimit() {
+        assertThrows(IllegalArgumentException.class, () -> leaderboardService.getTopUsers(LeaderboardMetric.CALORIES, null, 0));
+        assertThrows(IllegalArgumentException.class, () -> leaderboardService.getTopUsers(LeaderboardMetric.CALORIES, null, 101));
+    }
+}
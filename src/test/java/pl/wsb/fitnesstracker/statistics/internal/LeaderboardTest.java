@@ -0,0 +1,98 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import org.junit.jupiter.api.Test;
+import pl.wsb.fitnesstracker.statistics.api.LeaderboardMetric;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeaderboardTest {
+
+    private final Leaderboard leaderboard = new Leaderboard();
+
+    private List<Long> topUserIds(LeaderboardMetric metric, int limit) {
+        return leaderboard.top(metric, limit).stream().map(Leaderboard.Standing::userId).toList();
+    }
+
+    @Test
+    void shouldRankUsersByEveryMetric() {
+        leaderboard.add(1, 5, 10.0, 300);
+        leaderboard.add(2, 1, 30.0, 500);
+        leaderboard.add(3, 3, 20.0, 100);
+
+        assertEquals(List.of(2L, 1L, 3L), topUserIds(LeaderboardMetric.CALORIES, 10));
+        assertEquals(List.of(2L, 3L, 1L), topUserIds(LeaderboardMetric.DISTANCE, 10));
+        assertEquals(List.of(1L, 3L, 2L), topUserIds(LeaderboardMetric.TRAININGS, 10));
+    }
+
+    @Test
+    void shouldReturnOnlyRequestedNumberOfUsers() {
+        for (long userId = 1; userId <= 50; userId++) {
+            leaderboard.add(userId, 1, userId, userId * 10);
+        }
+
+        assertEquals(List.of(50L, 49L, 48L), topUserIds(LeaderboardMetric.CALORIES, 3));
+    }
+
+    @Test
+    void shouldOrderUsersWithEqualTotalsById() {
+        leaderboard.add(3, 1, 5.0, 100);
+        leaderboard.add(1, 1, 5.0, 100);
+        leaderboard.add(2, 1, 5.0, 100);
+
+        assertEquals(List.of(1L, 2L, 3L), topUserIds(LeaderboardMetric.CALORIES, 10));
+    }
+
+    @Test
+    void shouldMoveUserWhenTotalsChange() {
+        leaderboard.add(1, 1, 10.0, 1000);
+        leaderboard.add(2, 1, 5.0, 500);
+
+        leaderboard.add(2, 1, 8.0, 800);
+
+        List<Leaderboard.Standing> top = leaderboard.top(LeaderboardMetric.CALORIES, 10);
+        assertEquals(List.of(new Leaderboard.Standing(2, 2, 13.0, 1300), new Leaderboard.Standing(1, 1, 10.0, 1000)), top);
+    }
+
+    @Test
+    void shouldRemoveUserLeftWithoutTrainings() {
+        leaderboard.add(1, 1, 10.0, 1000);
+        leaderboard.add(2, 2, 5.0, 500);
+
+        leaderboard.add(1, -1, -10.0, -1000);
+        leaderboard.remove(2);
+
+        for (LeaderboardMetric metric : LeaderboardMetric.values()) {
+            assertTrue(leaderboard.top(metric, 10).isEmpty());
+        }
+    }
+
+    @Test
+    void shouldNotListUserTwiceWhileTotalsChangeConcurrently() throws Exception {
+        int users = 200;
+        for (long userId = 1; userId <= users; userId++) {
+            leaderboard.add(userId, 1, 1.0, userId);
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            long lowest = 1;
+            while (running.get()) {
+                Leaderboard.Standing first = leaderboard.top(LeaderboardMetric.CALORIES, 1).get(0);
+                leaderboard.add(first.userId(), 0, 0.0, --lowest - first.calories());
+            }
+        });
+        writer.start();
+        try {
+            for (int read = 0; read < 20_000; read++) {
+                List<Long> top = topUserIds(LeaderboardMetric.CALORIES, users);
+                assertEquals(top.size(), Set.copyOf(top).size(), () -> "User listed twice in " + top);
+            }
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+    }
+}
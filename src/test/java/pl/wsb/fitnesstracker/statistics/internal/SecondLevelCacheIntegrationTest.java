@@ -0,0 +1,112 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.statistics.api.Statistics;
+import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.internal.UserRepository;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies the Hibernate second-level and query cache enabled by the {@code l2cache} profile.
+ * Runs without a test transaction, so that every repository call uses its own persistence context.
+ */
+@IntegrationTest
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:l2cache")
+@ActiveProfiles("l2cache")
+class SecondLevelCacheIntegrationTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StatisticsRepository statisticsRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private org.hibernate.stat.Statistics hibernateStatistics;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(new User("John", "Doe", LocalDate.of(1990, 1, 1), "john.cache@example.com"));
+        hibernateStatistics = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getStatistics();
+        hibernateStatistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        statisticsRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void shouldServeRepeatedUserReadsFromCache() {
+        userRepository.findById(user.getId());
+        userRepository.findById(user.getId());
+
+        assertEquals(2, hibernateStatistics.getSecondLevelCacheHitCount());
+        assertEquals(0, hibernateStatistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void shouldReadUpdatedUserAfterWrite() {
+        userRepository.findById(user.getId());
+
+        User changed = userRepository.findById(user.getId()).orElseThrow();
+        changed.setFirstName("Johnny");
+        userRepository.save(changed);
+
+        assertEquals("Johnny", userRepository.findById(user.getId()).orElseThrow().getFirstName());
+    }
+
+    @Test
+    void shouldServeRepeatedQueriesFromQueryCacheUntilTableChanges() {
+        statisticsRepository.save(new Statistics(user));
+        hibernateStatistics.clear();
+
+        statisticsRepository.findByUserId(user.getId());
+        statisticsRepository.findByUserId(user.getId());
+        userRepository.findByEmail(user.getEmail());
+        userRepository.findByEmail(user.getEmail());
+
+        assertEquals(2, hibernateStatistics.getQueryCacheHitCount());
+
+        Statistics statistics = statisticsRepository.findByUserId(user.getId()).orElseThrow();
+        statistics.setTotalTrainings(5);
+        statisticsRepository.save(statistics);
+
+        assertEquals(5, statisticsRepository.findByUserId(user.getId()).orElseThrow().getTotalTrainings());
+    }
+
+    @Test
+    void shouldExposeCacheMetricsAndBoundRegions() {
+        userRepository.findById(user.getId());
+
+        assertNotNull(meterRegistry.find("hibernate.second.level.cache.requests").tag("result", "hit").functionCounter());
+        JCacheRegionFactory regionFactory = (JCacheRegionFactory) entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getCache().getRegionFactory();
+        Cache<?, ?> userCache = regionFactory.getCacheManager()
+                .getCache(User.class.getName(), Object.class, Object.class)
+                .unwrap(Cache.class);
+        assertEquals(10_000, userCache.policy().eviction().orElseThrow().getMaximum());
+    }
+}
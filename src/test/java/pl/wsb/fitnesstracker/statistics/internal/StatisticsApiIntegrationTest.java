@@ -17,6 +17,7 @@ import pl.wsb.fitnesstracker.training.api.Training;
 import pl.wsb.fitnesstracker.user.api.User;
 
 import jakarta.persistence.EntityManager;
+import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.util.Date;
 
@@ -128,6 +129,35 @@ class StatisticsApiIntegrationTest extends IntegrationTestBase {
                 .andExpect(jsonPath("$.totalCaloriesBurned").value(1500));
     }
 
+    @Test
+    void getStatisticsByUserId_shouldReturnNotModifiedUntilStatisticsOrUserChange() throws Exception {
+        String eTag = mockMvc.perform(get("/v1/statistics/users/{userId}", testUser.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/v1/statistics/users/{userId}", testUser.getId()).header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+
+        StatisticsDTO update = new StatisticsDTO();
+        update.setTotalTrainings(3);
+        mockMvc.perform(put("/v1/statistics/users/{userId}", testUser.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(update)))
+                .andExpect(status().isOk());
+        String updatedETag = mockMvc.perform(get("/v1/statistics/users/{userId}", testUser.getId()).header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalTrainings").value(3))
+                .andExpect(header().string("ETag", not(eTag)))
+                .andReturn().getResponse().getHeader("ETag");
+
+        testUser.setEmail("john.doe.updated@test.com");
+        entityManager.flush();
+        mockMvc.perform(get("/v1/statistics/users/{userId}", testUser.getId()).header("If-None-Match", updatedETag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userEmail").value("john.doe.updated@test.com"));
+    }
+
     @Test
     void getStatisticsById_shouldReturnStatistics() throws Exception {
         mockMvc.perform(get("/v1/statistics/{id}", testStatistics.getId()))
@@ -191,4 +221,146 @@ class StatisticsApiIntegrationTest extends IntegrationTestBase {
                 .content(objectMapper.writeValueAsString(dto)))
                 .andExpect(status().isNotFound());
     }
-}
\ No newline at end of file
+
+    @Test
+    void createTraining_shouldUpdateUserStatisticsIncrementally() throws Exception {
+        String requestBody = """
+                {
+                    "userId": "%s",
+                    "startTime": "2024-04-01T10:00:00",
+                    "endTime": "2024-04-01T11:00:00",
+                    "activityType": "RUNNING",
+                    "distance": 5.0,
+                    "averageSpeed": 10.0
+                }
+                """.formatted(testUser.getId());
+        mockMvc.perform(post("/v1/trainings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(requestBody))
+                .andExpect(status().isCreated());
+        // Totals are incremented in the database, so the statistics persisted by the setup are reloaded like in a later request
+        entityManager.clear();
+
+        mockMvc.perform(get("/v1/statistics/users/{userId}", testUser.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalTrainings").value(3))
+                .andExpect(jsonPath("$.totalDistance").value(35.0))
+                .andExpect(jsonPath("$.totalCaloriesBurned").value(2000));
+    }
+
+    @Test
+    void deleteUser_shouldDeleteUserStatistics() throws Exception {
+        mockMvc.perform(delete("/v1/users/{userId}", testUser.getId()))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/v1/statistics/{id}", testStatistics.getId()))
+                .andExpect(status().isNotFound());
+    }
+
+    private Long createTraining(String startTime, String endTime, String activityType, double distance) throws Exception {
+        String requestBody = """
+                [{"userId": %s, "startTime": "%s", "endTime": "%s", "activityType": "%s", "distance": %s, "averageSpeed": 10.0}]
+                """.formatted(testUser.getId(), startTime, endTime, activityType, distance);
+        String response = mockMvc.perform(post("/v1/trainings/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get(0).get("trainingId").asLong();
+    }
+
+    @Test
+    void getTimeline_shouldRollUpCreatedTrainingsPerPeriodAndActivityType() throws Exception {
+        createTraining("2024-04-10T10:00:00", "2024-04-10T11:00:00", "RUNNING", 5.0);
+        createTraining("2024-04-12T10:00:00", "2024-04-12T10:30:00", "RUNNING", 3.0);
+        createTraining("2024-05-15T10:00:00", "2024-05-15T12:00:00", "CYCLING", 40.0);
+
+        mockMvc.perform(get("/v1/statistics/users/{userId}/timeline", testUser.getId())
+                        .param("granularity", "MONTH")
+                        .param("from", "2024-01-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].periodStart").value("2024-04-01"))
+                .andExpect(jsonPath("$[0].activityType").value("RUNNING"))
+                .andExpect(jsonPath("$[0].trainings").value(2))
+                .andExpect(jsonPath("$[0].distance").value(8.0))
+                .andExpect(jsonPath("$[0].durationSeconds").value(5400))
+                .andExpect(jsonPath("$[0].caloriesBurned").value(800))
+                .andExpect(jsonPath("$[1].periodStart").value("2024-05-01"))
+                .andExpect(jsonPath("$[1].activityType").value("CYCLING"))
+                .andExpect(jsonPath("$[1].caloriesBurned").value(2000));
+
+        mockMvc.perform(get("/v1/statistics/users/{userId}/timeline", testUser.getId())
+                        .param("granularity", "WEEK")
+                        .param("from", "2024-04-11")
+                        .param("to", "2024-04-30"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].periodStart").value("2024-04-08"))
+                .andExpect(jsonPath("$[0].trainings").value(2));
+    }
+
+    @Test
+    void updateTraining_shouldMoveTrainingBetweenTimelinePeriods() throws Exception {
+        Long trainingId = createTraining("2024-04-10T10:00:00", "2024-04-10T11:00:00", "RUNNING", 5.0);
+
+        mockMvc.perform(put("/v1/trainings/{trainingId}", trainingId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"startTime": "2024-06-03T10:00:00", "endTime": "2024-06-03T11:00:00", "distance": 5.0, "averageSpeed": 10.0}
+                                """))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/v1/statistics/users/{userId}/timeline", testUser.getId())
+                        .param("granularity", "DAY")
+                        .param("from", "2024-01-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].periodStart").value("2024-06-03"))
+                .andExpect(jsonPath("$[0].trainings").value(1));
+    }
+
+    @Test
+    void updateTraining_shouldKeepTrainingsWrittenWithoutServiceInTimeline() throws Exception {
+        Training existing = new Training(testUser, Timestamp.valueOf("2024-04-10 08:00:00"),
+                Timestamp.valueOf("2024-04-10 09:00:00"), ActivityType.RUNNING, 5.0, 10.0);
+        entityManager.persist(existing);
+        entityManager.flush();
+        createTraining("2024-04-10T10:00:00", "2024-04-10T11:00:00", "RUNNING", 3.0);
+
+        mockMvc.perform(put("/v1/trainings/{trainingId}", existing.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"startTime": "2024-06-03T10:00:00", "endTime": "2024-06-03T11:00:00", "distance": 5.0, "averageSpeed": 10.0}
+                                """))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/v1/statistics/users/{userId}/timeline", testUser.getId())
+                        .param("granularity", "DAY")
+                        .param("from", "2024-01-01")
+                        .param("to", "2024-12-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].periodStart").value("2024-04-10"))
+                .andExpect(jsonPath("$[0].trainings").value(1))
+                .andExpect(jsonPath("$[0].distance").value(3.0))
+                .andExpect(jsonPath("$[1].periodStart").value("2024-06-03"))
+                .andExpect(jsonPath("$[1].trainings").value(1));
+    }
+
+    @Test
+    void recalculateTimeline_shouldRollUpExistingTrainings() throws Exception {
+        mockMvc.perform(post("/v1/statistics/users/{userId}/timeline/recalculate", testUser.getId())
+                        .param("granularity", "DAY"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[*].activityType", containsInAnyOrder("RUNNING", "CYCLING")));
+    }
+
+    @Test
+    void getTimeline_shouldReturn404WhenUserNotFound() throws Exception {
+        mockMvc.perform(get("/v1/statistics/users/{userId}/timeline", 999999L))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,90 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.statistics.api.StatisticsService;
+import pl.wsb.fitnesstracker.training.api.ActivityType;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.api.TrainingProvider;
+import pl.wsb.fitnesstracker.training.api.TrainingTotals;
+import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserService;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that statistics stay correct under concurrent training writes for the same user.
+ * Runs without a test transaction, so every write commits in its own transaction.
+ */
+@IntegrationTest
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:statistics-concurrency")
+class StatisticsConcurrencyIntegrationTest {
+
+    private static final int WRITERS = 4;
+    private static final int TRAININGS_PER_WRITER = 20;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TrainingProvider trainingProvider;
+
+    @Autowired
+    private StatisticsService statisticsService;
+
+    private User user;
+
+    @AfterEach
+    void tearDown() {
+        if (user != null) {
+            userService.deleteUserById(user.getId());
+        }
+    }
+
+    private Training training(double distance) {
+        return new Training(user, new Date(0), new Date(3_600_000), ActivityType.RUNNING, distance, 10.0);
+    }
+
+    @Test
+    void shouldNotLoseConcurrentTrainingWrites() throws Exception {
+        user = userService.createUser(new User("John", "Doe", LocalDate.of(1990, 1, 1), "john@concurrency.com"));
+        trainingProvider.createTraining(training(1.0));
+
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        try {
+            List<Callable<Void>> writers = new ArrayList<>();
+            for (int writer = 0; writer < WRITERS; writer++) {
+                writers.add(() -> {
+                    for (int i = 0; i < TRAININGS_PER_WRITER; i++) {
+                        trainingProvider.createTraining(training(0.5));
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> result : executor.invokeAll(writers)) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        StatisticsDTO statistics = statisticsService.getStatisticsByUserId(user.getId());
+        TrainingTotals totals = trainingProvider.getTrainingTotals(user.getId());
+        assertEquals(1 + WRITERS * TRAININGS_PER_WRITER, statistics.getTotalTrainings());
+        assertEquals(totals.trainings(), (long) statistics.getTotalTrainings());
+        assertEquals(totals.distance(), statistics.getTotalDistance(), 1e-9);
+        assertEquals(totals.calories(), (long) statistics.getTotalCaloriesBurned());
+    }
+}
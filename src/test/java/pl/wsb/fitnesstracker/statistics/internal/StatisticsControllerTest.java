@@ -9,8 +9,14 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import pl.wsb.fitnesstracker.exception.api.NotFoundException;
+import pl.wsb.fitnesstracker.statistics.api.LeaderboardMetric;
+import pl.wsb.fitnesstracker.statistics.api.LeaderboardService;
+import pl.wsb.fitnesstracker.statistics.api.RollupGranularity;
 import pl.wsb.fitnesstracker.statistics.api.StatisticsService;
+import pl.wsb.fitnesstracker.statistics.api.TrainingTimelineService;
+import pl.wsb.fitnesstracker.training.api.ActivityType;
 
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
 
@@ -35,6 +41,12 @@ class StatisticsControllerTest {
     @MockBean
     private StatisticsService statisticsService;
 
+    @MockBean
+    private TrainingTimelineService trainingTimelineService;
+
+    @MockBean
+    private LeaderboardService leaderboardService;
+
     private StatisticsDTO testDto;
 
     @BeforeEach
@@ -79,16 +91,30 @@ class StatisticsControllerTest {
 
     @Test
     void getStatisticsByUserId_shouldReturnStatistics() throws Exception {
+        when(statisticsService.getStatisticsVersionByUserId(1L)).thenReturn(new StatisticsVersion(2, 1));
         when(statisticsService.getStatisticsByUserId(1L)).thenReturn(testDto);
 
         mockMvc.perform(get("/v1/statistics/users/1"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2.1\""))
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.userId").value(1));
 
         verify(statisticsService).getStatisticsByUserId(1L);
     }
 
+    @Test
+    void getStatisticsByUserId_shouldReturnNotModifiedWhenETagMatches() throws Exception {
+        when(statisticsService.getStatisticsVersionByUserId(1L)).thenReturn(new StatisticsVersion(2, 1));
+
+        mockMvc.perform(get("/v1/statistics/users/1").header("If-None-Match", "\"2.1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"2.1\""))
+                .andExpect(content().string(""));
+
+        verify(statisticsService, never()).getStatisticsByUserId(anyLong());
+    }
+
     @Test
     void getStatisticsById_shouldReturnStatistics() throws Exception {
         when(statisticsService.getStatisticsById(1L)).thenReturn(testDto);
@@ -144,4 +170,55 @@ class StatisticsControllerTest {
         mockMvc.perform(get("/v1/statistics/999"))
                 .andExpect(status().isNotFound());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getTimeline_shouldReturnTimelineOfRequestedGranularity() throws Exception {
+        TimelineEntryDTO entry = new TimelineEntryDTO(LocalDate.of(2024, 4, 8), ActivityType.RUNNING, 2, 8.0, 5400, 800);
+        when(trainingTimelineService.getTimeline(1L, RollupGranularity.WEEK, LocalDate.of(2024, 4, 1), null))
+                .thenReturn(List.of(entry));
+
+        mockMvc.perform(get("/v1/statistics/users/1/timeline")
+                .param("granularity", "WEEK")
+                .param("from", "2024-04-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].periodStart").value("2024-04-08"))
+                .andExpect(jsonPath("$[0].trainings").value(2))
+                .andExpect(jsonPath("$[0].durationSeconds").value(5400));
+    }
+
+    @Test
+    void getLeaderboard_shouldReturnTopUsersOfRequestedMetricAndActivityType() throws Exception {
+        when(leaderboardService.getTopUsers(LeaderboardMetric.DISTANCE, ActivityType.CYCLING, 2))
+                .thenReturn(List.of(new LeaderboardEntryDTO(1, 7L, 3, 60.0, 3000),
+                        new LeaderboardEntryDTO(2, 1L, 1, 20.0, 1000)));
+
+        mockMvc.perform(get("/v1/statistics/leaderboard")
+                .param("metric", "DISTANCE")
+                .param("activityType", "CYCLING")
+                .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].rank").value(1))
+                .andExpect(jsonPath("$[0].userId").value(7))
+                .andExpect(jsonPath("$[1].distance").value(20.0));
+    }
+
+    @Test
+    void getLeaderboard_shouldRankByCaloriesOfAllActivitiesByDefault() throws Exception {
+        when(leaderboardService.getTopUsers(LeaderboardMetric.CALORIES, null, 10)).thenReturn(List.of());
+
+        mockMvc.perform(get("/v1/statistics/leaderboard"))
+                .andExpect(status().isOk());
+
+        verify(leaderboardService).getTopUsers(LeaderboardMetric.CALORIES, null, 10);
+    }
+
+    @Test
+    void getLeaderboard_shouldReturn400WhenLimitIsInvalid() throws Exception {
+        when(leaderboardService.getTopUsers(LeaderboardMetric.CALORIES, null, 0))
+                .thenThrow(new IllegalArgumentException("Limit must be between 1 and 100"));
+
+        mockMvc.perform(get("/v1/statistics/leaderboard").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,50 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.wsb.fitnesstracker.QueryPlans;
+import pl.wsb.fitnesstracker.statistics.api.RollupGranularity;
+import pl.wsb.fitnesstracker.training.api.ActivityType;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static pl.wsb.fitnesstracker.QueryPlans.assertUsesIndexes;
+
+/**
+ * Verifies that statistics and rollup queries are served by the indexes of the schema migrations.
+ */
+@DataJpaTest(properties = QueryPlans.RECORDING_PROPERTY)
+class StatisticsQueryPlanTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StatisticsRepository statisticsRepository;
+
+    @Autowired
+    private TrainingRollupRepository trainingRollupRepository;
+
+    @Test
+    void shouldUseIndexesForStatisticsQueries() {
+        assertUsesIndexes(jdbcTemplate, () -> statisticsRepository.findByUserId(1L));
+        assertUsesIndexes(jdbcTemplate, () -> statisticsRepository.existsByUserId(1L));
+        assertUsesIndexes(jdbcTemplate, () -> statisticsRepository.findByTotalCaloriesBurnedGreaterThan(1000));
+        assertUsesIndexes(jdbcTemplate, () -> statisticsRepository.deleteByUserId(1L));
+    }
+
+    @Test
+    void shouldUseIndexesForRollupQueries() {
+        LocalDate day = LocalDate.of(2024, 1, 1);
+
+        assertUsesIndexes(jdbcTemplate, () -> trainingRollupRepository.incrementTotals(
+                1L, ActivityType.RUNNING, RollupGranularity.DAY, day, 1, 1.0, 60L, 10));
+        assertUsesIndexes(jdbcTemplate, () -> trainingRollupRepository.deleteEmpty(1L, List.of(day)));
+        assertUsesIndexes(jdbcTemplate, () -> trainingRollupRepository.findTimeline(1L, RollupGranularity.MONTH, day, day));
+        assertUsesIndexes(jdbcTemplate, () -> trainingRollupRepository.findTimeline(1L, RollupGranularity.MONTH, null, null));
+        assertUsesIndexes(jdbcTemplate, () -> trainingRollupRepository.deleteByUserId(1L));
+    }
+}
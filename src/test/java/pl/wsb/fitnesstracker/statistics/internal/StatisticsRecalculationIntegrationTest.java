@@ -0,0 +1,165 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.web.servlet.MockMvc;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.statistics.api.RollupGranularity;
+import pl.wsb.fitnesstracker.statistics.api.Statistics;
+import pl.wsb.fitnesstracker.statistics.api.StatisticsService;
+import pl.wsb.fitnesstracker.statistics.api.TrainingTimelineService;
+import pl.wsb.fitnesstracker.training.api.ActivityType;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.internal.TrainingRepository;
+import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.internal.UserRepository;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifies the recalculation of all users' statistics.
+ * Runs without a test transaction, because the recalculation reads and writes through its own connections.
+ */
+@IntegrationTest
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:recalculation",
+        "statistics.recalculation.batch-size=2"})
+@AutoConfigureMockMvc
+class StatisticsRecalculationIntegrationTest {
+
+    private static final long DAY_MILLIS = 24L * 3_600_000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TrainingRepository trainingRepository;
+
+    @Autowired
+    private StatisticsRepository statisticsRepository;
+
+    @Autowired
+    private StatisticsService statisticsService;
+
+    @Autowired
+    private StatisticsRecalculationJob recalculationJob;
+
+    @Autowired
+    private TrainingRollupRepository trainingRollupRepository;
+
+    @Autowired
+    private TrainingTimelineService trainingTimelineService;
+
+    @AfterEach
+    void tearDown() {
+        trainingRollupRepository.deleteAll();
+        trainingRepository.deleteAll();
+        statisticsRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    private User saveUser(String firstName) {
+        return userRepository.save(new User(firstName, "Doe", LocalDate.of(1990, 1, 1), firstName.toLowerCase() + "@recalculation.com"));
+    }
+
+    private static Training training(User user, ActivityType activityType, double distance) {
+        return new Training(user, new Date(0), new Date(3_600_000), activityType, distance, 10.0);
+    }
+
+    private Statistics statisticsOf(User user) {
+        return statisticsRepository.findByUserId(user.getId()).orElseThrow();
+    }
+
+    @Test
+    void shouldRecalculateStatisticsOfAllUsersInBatches() throws Exception {
+        User john = saveUser("John");
+        User jane = saveUser("Jane");
+        User jack = saveUser("Jack");
+        User jill = saveUser("Jill");
+        trainingRepository.saveAll(List.of(
+                training(john, ActivityType.RUNNING, 10.55),
+                training(john, ActivityType.CYCLING, 0.01),
+                training(john, ActivityType.CYCLING, 0.01),
+                training(jane, ActivityType.SWIMMING, 1.5),
+                training(jack, ActivityType.TENNIS, 2.0)));
+        Statistics outdated = new Statistics(jane);
+        outdated.setTotalTrainings(99);
+        statisticsRepository.save(outdated);
+        Statistics withoutTrainings = new Statistics(jill);
+        withoutTrainings.setTotalTrainings(3);
+        withoutTrainings.setTotalCaloriesBurned(300);
+        statisticsRepository.save(withoutTrainings);
+
+        mockMvc.perform(post("/v1/admin/statistics/recalculation"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.state").value("RUNNING"));
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                mockMvc.perform(get("/v1/admin/statistics/recalculation"))
+                        .andExpect(jsonPath("$.state").value("COMPLETED"))
+                        .andExpect(jsonPath("$.usersTotal").value(3))
+                        .andExpect(jsonPath("$.usersProcessed").value(3)));
+
+        assertEquals(3, statisticsOf(john).getTotalTrainings());
+        assertEquals(10.57, statisticsOf(john).getTotalDistance(), 1e-9);
+        assertEquals(1055, statisticsOf(john).getTotalCaloriesBurned());
+        assertEquals(1, statisticsOf(jane).getTotalTrainings());
+        assertEquals(105, statisticsOf(jane).getTotalCaloriesBurned());
+        assertEquals(160, statisticsOf(jack).getTotalCaloriesBurned());
+        assertEquals(0, statisticsOf(jill).getTotalTrainings());
+        assertEquals(0, statisticsOf(jill).getTotalCaloriesBurned());
+        assertEquals(4, statisticsRepository.count());
+        assertEquals(1, statisticsOf(jane).getVersion());
+        assertEquals(1, statisticsOf(jill).getVersion());
+        outdated.setTotalTrainings(100);
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> statisticsRepository.save(outdated));
+        mockMvc.perform(get("/v1/statistics/leaderboard").param("limit", "2"))
+                .andExpect(jsonPath("$[0].userId").value(john.getId()))
+                .andExpect(jsonPath("$[1].userId").value(jack.getId()));
+    }
+
+    @Test
+    void shouldMatchPerUserRecalculation() {
+        User john = saveUser("John");
+        trainingRepository.saveAll(List.of(
+                training(john, ActivityType.RUNNING, 7.77),
+                training(john, ActivityType.WALKING, 3.33),
+                training(john, ActivityType.SWIMMING, 0.99),
+                new Training(john, new Date(40 * DAY_MILLIS), new Date(40 * DAY_MILLIS + 1_800_500), ActivityType.RUNNING, 2.5, 5.0),
+                new Training(john, new Date(45 * DAY_MILLIS), new Date(45 * DAY_MILLIS + 600_000), ActivityType.RUNNING, 1.0, 5.0)));
+
+        recalculationJob.recalculateAll();
+        Map<RollupGranularity, List<TimelineEntryDTO>> timelinesForAll = new EnumMap<>(RollupGranularity.class);
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            timelinesForAll.put(granularity, trainingTimelineService.getTimeline(john.getId(), granularity, null, null));
+        }
+        Statistics recalculatedForAll = statisticsOf(john);
+        StatisticsDTO recalculatedForUser = statisticsService.recalculateStatistics(john.getId());
+
+        assertEquals(RecalculationProgress.State.COMPLETED, recalculationJob.getProgress().state());
+        assertEquals((int) recalculatedForUser.getTotalTrainings(), recalculatedForAll.getTotalTrainings());
+        assertEquals(recalculatedForUser.getTotalDistance(), recalculatedForAll.getTotalDistance(), 1e-9);
+        assertEquals((int) recalculatedForUser.getTotalCaloriesBurned(), recalculatedForAll.getTotalCaloriesBurned());
+        assertEquals(4, timelinesForAll.get(RollupGranularity.MONTH).size());
+        timelinesForAll.forEach((granularity, timeline) ->
+                assertEquals(trainingTimelineService.recalculateTimeline(john.getId(), granularity), timeline));
+    }
+}
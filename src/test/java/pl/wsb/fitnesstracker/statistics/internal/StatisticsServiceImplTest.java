@@ -5,14 +5,21 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
 import pl.wsb.fitnesstracker.exception.api.NotFoundException;
 import pl.wsb.fitnesstracker.statistics.api.Statistics;
 import pl.wsb.fitnesstracker.statistics.api.StatisticsMapper;
 import pl.wsb.fitnesstracker.training.api.ActivityType;
+import pl.wsb.fitnesstracker.training.api.CalorieModel;
 import pl.wsb.fitnesstracker.training.api.Training;
 import pl.wsb.fitnesstracker.training.api.TrainingProvider;
+import pl.wsb.fitnesstracker.training.api.TrainingTotals;
+import pl.wsb.fitnesstracker.training.api.TrainingsChangedEvent;
 import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserDeletedEvent;
 import pl.wsb.fitnesstracker.user.api.UserProvider;
 
 import java.time.LocalDate;
@@ -44,6 +51,12 @@ class StatisticsServiceImplTest {
     @Mock
     private TrainingProvider trainingProvider;
 
+    @Spy
+    private CalorieModel calorieModel = CalorieModel.DEFAULT;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private StatisticsServiceImpl statisticsService;
 
@@ -113,6 +126,31 @@ class StatisticsServiceImplTest {
         verify(statisticsRepository).save(testStatistics);
     }
 
+    @Test
+    void updateStatistics_shouldRetryWhenStatisticsWereModifiedConcurrently() {
+        when(statisticsRepository.findByUserId(1L)).thenReturn(Optional.of(testStatistics));
+        when(statisticsRepository.save(testStatistics))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Statistics.class, 1L))
+                .thenReturn(testStatistics);
+        when(statisticsMapper.toDto(testStatistics)).thenReturn(testDto);
+
+        StatisticsDTO result = statisticsService.updateStatistics(1L, testDto);
+
+        assertSame(testDto, result);
+        verify(statisticsRepository, times(2)).findByUserId(1L);
+        verify(transactionManager, times(2)).getTransaction(any());
+    }
+
+    @Test
+    void updateStatistics_shouldFailAfterMaxAttemptsOfConcurrentModifications() {
+        when(statisticsRepository.findByUserId(1L)).thenReturn(Optional.of(testStatistics));
+        when(statisticsRepository.save(testStatistics))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Statistics.class, 1L));
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> statisticsService.updateStatistics(1L, testDto));
+        verify(statisticsRepository, times(StatisticsServiceImpl.MAX_WRITE_ATTEMPTS)).save(testStatistics);
+    }
+
     @Test
     void updateStatistics_shouldThrowExceptionWhenStatisticsNotFound() {
         when(statisticsRepository.findByUserId(1L)).thenReturn(Optional.empty());
@@ -172,12 +210,8 @@ class StatisticsServiceImplTest {
 
     @Test
     void recalculateStatistics_shouldCalculateAndUpdateStatistics() {
-        Training training1 = new Training(testUser, new Date(), new Date(), ActivityType.RUNNING, 10.0, 8.0);
-        Training training2 = new Training(testUser, new Date(), new Date(), ActivityType.CYCLING, 20.0, 15.0);
-        List<Training> trainings = Arrays.asList(training1, training2);
-
         when(userProvider.getUser(1L)).thenReturn(Optional.of(testUser));
-        when(trainingProvider.findTrainingsByUserId(1L)).thenReturn(trainings);
+        when(trainingProvider.getTrainingTotals(1L)).thenReturn(new TrainingTotals(2, 30.0, 2000));
         when(statisticsRepository.findByUserId(1L)).thenReturn(Optional.of(testStatistics));
         when(statisticsRepository.save(any(Statistics.class))).thenReturn(testStatistics);
         when(statisticsMapper.toDto(testStatistics)).thenReturn(testDto);
@@ -185,16 +219,17 @@ class StatisticsServiceImplTest {
         StatisticsDTO result = statisticsService.recalculateStatistics(1L);
 
         assertNotNull(result);
+        assertEquals(2, testStatistics.getTotalTrainings());
+        assertEquals(30.0, testStatistics.getTotalDistance());
+        assertEquals(2000, testStatistics.getTotalCaloriesBurned());
         verify(statisticsRepository).save(any(Statistics.class));
+        verify(trainingProvider, never()).findTrainingsByUserId(anyLong());
     }
 
     @Test
     void recalculateStatistics_shouldCreateNewStatisticsIfNotExist() {
-        Training training = new Training(testUser, new Date(), new Date(), ActivityType.RUNNING, 10.0, 8.0);
-        List<Training> trainings = Arrays.asList(training);
-
         when(userProvider.getUser(1L)).thenReturn(Optional.of(testUser));
-        when(trainingProvider.findTrainingsByUserId(1L)).thenReturn(trainings);
+        when(trainingProvider.getTrainingTotals(1L)).thenReturn(new TrainingTotals(1, 10.0, 1000));
         when(statisticsRepository.findByUserId(1L)).thenReturn(Optional.empty());
         when(statisticsRepository.save(any(Statistics.class))).thenReturn(testStatistics);
         when(statisticsMapper.toDto(any(Statistics.class))).thenReturn(testDto);
@@ -214,4 +249,65 @@ class StatisticsServiceImplTest {
         assertTrue(result.isPresent());
         assertEquals(testStatistics, result.get());
     }
-}
\ No newline at end of file
+
+    @Test
+    void onTrainingsChanged_shouldAddCreatedTrainingToExistingStatistics() {
+        TrainingsChangedEvent.Snapshot created = new TrainingsChangedEvent.Snapshot(1L, ActivityType.RUNNING, new Date(), new Date(), 5.0);
+        when(statisticsRepository.incrementTotals(1L, 1, 5.0, 500)).thenReturn(1);
+
+        statisticsService.onTrainingsChanged(TrainingsChangedEvent.of(null, created));
+
+        verify(statisticsRepository).incrementTotals(1L, 1, 5.0, 500);
+        verify(statisticsRepository, never()).findByUserId(anyLong());
+        verify(statisticsRepository, never()).save(any());
+        verify(trainingProvider, never()).getTrainingTotals(anyLong());
+    }
+
+    @Test
+    void onTrainingsChanged_shouldApplyDifferenceOfUpdatedTraining() {
+        TrainingsChangedEvent.Snapshot before = new TrainingsChangedEvent.Snapshot(1L, ActivityType.RUNNING, new Date(), new Date(), 5.0);
+        TrainingsChangedEvent.Snapshot after = new TrainingsChangedEvent.Snapshot(1L, ActivityType.CYCLING, new Date(), new Date(), 8.0);
+        when(statisticsRepository.incrementTotals(1L, 0, 3.0, -100)).thenReturn(1);
+
+        statisticsService.onTrainingsChanged(TrainingsChangedEvent.of(before, after));
+
+        verify(statisticsRepository).incrementTotals(1L, 0, 3.0, -100);
+        verify(statisticsRepository, never()).save(any());
+    }
+
+    @Test
+    void onTrainingsChanged_shouldMoveTrainingBetweenUsers() {
+        TrainingsChangedEvent.Snapshot before = new TrainingsChangedEvent.Snapshot(1L, ActivityType.RUNNING, new Date(), new Date(), 5.0);
+        TrainingsChangedEvent.Snapshot after = new TrainingsChangedEvent.Snapshot(2L, ActivityType.RUNNING, new Date(), new Date(), 5.0);
+        when(statisticsRepository.incrementTotals(1L, -1, -5.0, -500)).thenReturn(1);
+        when(statisticsRepository.incrementTotals(2L, 1, 5.0, 500)).thenReturn(1);
+
+        statisticsService.onTrainingsChanged(TrainingsChangedEvent.of(before, after));
+
+        verify(statisticsRepository).incrementTotals(1L, -1, -5.0, -500);
+        verify(statisticsRepository).incrementTotals(2L, 1, 5.0, 500);
+    }
+
+    @Test
+    void onTrainingsChanged_shouldRecalculateWhenStatisticsDoNotExist() {
+        TrainingsChangedEvent.Snapshot created = new TrainingsChangedEvent.Snapshot(1L, ActivityType.RUNNING, new Date(), new Date(), 10.0);
+        when(statisticsRepository.incrementTotals(1L, 1, 10.0, 1000)).thenReturn(0);
+        when(statisticsRepository.findByUserId(1L)).thenReturn(Optional.empty());
+        when(userProvider.getUser(1L)).thenReturn(Optional.of(testUser));
+        when(trainingProvider.getTrainingTotals(1L)).thenReturn(new TrainingTotals(1, 10.0, 1000));
+        when(statisticsRepository.save(any(Statistics.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        statisticsService.onTrainingsChanged(TrainingsChangedEvent.of(null, created));
+
+        verify(statisticsRepository).save(argThat(statistics -> statistics.getTotalTrainings() == 1
+                && statistics.getTotalDistance() == 10.0
+                && statistics.getTotalCaloriesBurned() == 1000));
+    }
+
+    @Test
+    void onUserDeleted_shouldDeleteUserStatistics() {
+        statisticsService.onUserDeleted(new UserDeletedEvent(1L));
+
+        verify(statisticsRepository).deleteByUserId(1L);
+    }
+}
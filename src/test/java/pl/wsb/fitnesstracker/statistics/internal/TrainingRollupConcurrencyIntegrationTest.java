@@ -0,0 +1,144 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.statistics.api.RollupGranularity;
+import pl.wsb.fitnesstracker.statistics.api.TrainingTimelineService;
+import pl.wsb.fitnesstracker.training.api.ActivityType;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.api.TrainingProvider;
+import pl.wsb.fitnesstracker.training.api.TrainingsChangedEvent;
+import pl.wsb.fitnesstracker.training.internal.TrainingRepository;
+import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserService;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that training rollups stay correct under concurrent training writes for the same user and period,
+ * including the first trainings of a period, which all try to insert its rollups.
+ * Runs without a test transaction, so every write commits in its own transaction.
+ */
+@IntegrationTest
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:rollup-concurrency")
+class TrainingRollupConcurrencyIntegrationTest {
+
+    private static final int WRITERS = 4;
+    private static final int TRAININGS_PER_WRITER = 20;
+    private static final long YEAR_MILLIS = 366L * 24 * 3_600_000;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TrainingProvider trainingProvider;
+
+    @Autowired
+    private TrainingTimelineService trainingTimelineService;
+
+    @Autowired
+    private TrainingTimelineServiceImpl trainingTimelineServiceImpl;
+
+    @Autowired
+    private TrainingRepository trainingRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User user;
+
+    @AfterEach
+    void tearDown() {
+        if (user != null) {
+            userService.deleteUserById(user.getId());
+        }
+    }
+
+    private Training training(long startMillis, double distance) {
+        return new Training(user, new Date(startMillis), new Date(startMillis + 3_600_000), ActivityType.RUNNING, distance, 10.0);
+    }
+
+    /**
+     * Writes trainings through the training service, so rollups are updated together with statistics.
+     * The user gets a training in another year first, so that statistics exist and only the rollups of the period
+     * are created concurrently.
+     */
+    @Test
+    void shouldNotLoseConcurrentTrainingWrites() throws Exception {
+        user = userService.createUser(new User("John", "Doe", LocalDate.of(1990, 1, 1), "john@rollup-concurrency.com"));
+        trainingProvider.createTraining(training(YEAR_MILLIS, 1.0));
+
+        runConcurrently(() -> trainingProvider.createTraining(training(0, 0.5)));
+
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            List<TimelineEntryDTO> timeline = trainingTimelineService.getTimeline(user.getId(), granularity, null, null);
+            assertEquals(2, timeline.size());
+            assertEquals(WRITERS * TRAININGS_PER_WRITER, timeline.get(0).trainings());
+            assertEquals(WRITERS * TRAININGS_PER_WRITER * 3600L, timeline.get(0).durationSeconds());
+            assertEquals(trainingTimelineService.recalculateTimeline(user.getId(), granularity), timeline);
+        }
+    }
+
+    /**
+     * Saves trainings and applies their changes to the rollups directly, without the statistics update whose row lock
+     * would serialize the writers, so that the first changes of every period race to insert its rollups.
+     */
+    @Test
+    void shouldNotLoseConcurrentInsertsOfNewPeriods() throws Exception {
+        user = userService.createUser(new User("Jane", "Doe", LocalDate.of(1990, 1, 1), "jane@rollup-concurrency.com"));
+
+        AtomicInteger day = new AtomicInteger();
+        runConcurrently(() -> {
+            long startMillis = (day.getAndIncrement() / WRITERS) * 24L * 3_600_000;
+            transactionTemplate.executeWithoutResult(status -> {
+                Training training = trainingRepository.save(training(startMillis, 0.5));
+                trainingTimelineServiceImpl.onTrainingsChanged(
+                        TrainingsChangedEvent.of(null, TrainingsChangedEvent.Snapshot.of(training)));
+            });
+        });
+
+        List<TimelineEntryDTO> days = trainingTimelineService.getTimeline(user.getId(), RollupGranularity.DAY, null, null);
+        assertEquals(TRAININGS_PER_WRITER, days.size());
+        assertTrue(days.stream().allMatch(entry -> entry.trainings() == WRITERS));
+        List<TimelineEntryDTO> months = trainingTimelineService.getTimeline(user.getId(), RollupGranularity.MONTH, null, null);
+        assertEquals(WRITERS * TRAININGS_PER_WRITER, months.stream().mapToInt(TimelineEntryDTO::trainings).sum());
+        assertEquals(WRITERS * TRAININGS_PER_WRITER * 0.5, months.stream().mapToDouble(TimelineEntryDTO::distance).sum(), 1e-9);
+    }
+
+    private void runConcurrently(Runnable write) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int writer = 0; writer < WRITERS; writer++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < TRAININGS_PER_WRITER; i++) {
+                        write.run();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -5,11 +5,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 import pl.wsb.fitnesstracker.IntegrationTest;
 import pl.wsb.fitnesstracker.IntegrationTestBase;
 import pl.wsb.fitnesstracker.training.api.ActivityType;
 import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.api.TrainingProvider;
 import pl.wsb.fitnesstracker.user.api.User;
 
 import java.text.ParseException;
@@ -19,6 +21,10 @@ import java.time.LocalDate;
 import static java.util.UUID.randomUUID;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.log;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -227,5 +233,191 @@ class TrainingApiIntegrationTest extends IntegrationTestBase {
                 .andExpect(jsonPath("$.averageSpeed").value(0.0));
     }
 
+    @Test
+    void shouldReturnTrainingsPageByPage_whenGettingAllTrainingsWithPageSize() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        Training training1 = persistTraining(generateTrainingWithDetails(user1, "2024-05-17 19:00:00", "2024-05-17 20:30:00", ActivityType.RUNNING, 10, 8));
+        Training training2 = persistTraining(generateTrainingWithDetails(user1, "2024-05-18 19:00:00", "2024-05-18 20:30:00", ActivityType.RUNNING, 11, 8));
+        Training training3 = persistTraining(generateTrainingWithDetails(user1, "2024-05-19 19:00:00", "2024-05-19 20:30:00", ActivityType.RUNNING, 12, 8));
+
+        MvcResult firstPage = mockMvc.perform(get("/v1/trainings").param("size", "2").contentType(MediaType.APPLICATION_JSON))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andExpect(jsonPath("$[0].distance").value(training1.getDistance()))
+                .andExpect(jsonPath("$[1].distance").value(training2.getDistance()))
+                .andExpect(jsonPath("$[2]").doesNotExist())
+                .andReturn();
+
+        mockMvc.perform(get("/v1/trainings")
+                        .param("size", "2")
+                        .param("cursor", firstPage.getResponse().getHeader("X-Next-Cursor"))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andExpect(jsonPath("$[0].distance").value(training3.getDistance()))
+                .andExpect(jsonPath("$[1]").doesNotExist());
+    }
+
+    @Test
+    void shouldReturnNextPageOfActivityType_whenGettingTrainingsByActivityTypeWithCursor() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        persistTraining(generateTrainingWithActivityType(user1, ActivityType.TENNIS));
+        persistTraining(generateTrainingWithActivityType(user1, ActivityType.RUNNING));
+        Training training3 = persistTraining(generateTrainingWithActivityType(user1, ActivityType.TENNIS));
+
+        MvcResult firstPage = mockMvc.perform(get("/v1/trainings/activityType").param("activityType", "TENNIS").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[1]").doesNotExist())
+                .andReturn();
+
+        mockMvc.perform(get("/v1/trainings/activityType")
+                        .param("activityType", "TENNIS")
+                        .param("size", "1")
+                        .param("cursor", firstPage.getResponse().getHeader("X-Next-Cursor")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].activityType").value(training3.getActivityType().toString()))
+                .andExpect(jsonPath("$[1]").doesNotExist());
+    }
+
+    @Test
+    void shouldRejectInvalidCursorAndPageSize_whenGettingAllTrainings() throws Exception {
+
+        mockMvc.perform(get("/v1/trainings").param("cursor", "not a cursor"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/v1/trainings").param("size", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/v1/trainings").param("size", "501"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldStreamAllTrainingsAsNdjson_whenExportingTrainings() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        Training training1 = persistTraining(generateTrainingWithDetails(user1, "2024-05-17 19:00:00", "2024-05-17 20:30:00", ActivityType.RUNNING, 10, 8));
+        Training training2 = persistTraining(generateTrainingWithDetails(user1, "2024-05-18 19:00:00", "2024-05-18 20:30:00", ActivityType.CYCLING, 20, 15));
+
+        MvcResult result = mockMvc.perform(get("/v1/trainings/export"))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=trainings.ndjson"))
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"email\":\"" + user1.getEmail() + "\""));
+        assertTrue(lines[0].contains("\"distance\":" + training1.getDistance()));
+        assertTrue(lines[1].contains("\"activityType\":\"" + training2.getActivityType() + "\""));
+    }
+
+    @Test
+    void shouldStreamAllTrainingsAsCsv_whenExportingTrainingsAsCsv() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        persistTraining(generateTrainingWithDetails(user1, "2024-05-17 19:00:00", "2024-05-17 20:30:00", ActivityType.RUNNING, 10, 8));
+
+        MvcResult result = mockMvc.perform(get("/v1/trainings/export").param("format", "CSV"))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=trainings.csv"))
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("userId,firstName,lastName,email,startTime,endTime,activityType,distance,averageSpeed", lines[0]);
+        assertTrue(lines[1].startsWith(user1.getId() + "," + user1.getFirstName() + "," + user1.getLastName() + "," + user1.getEmail() + ","));
+        assertTrue(lines[1].endsWith(",RUNNING,10.0,8.0"));
+    }
+
+    @Test
+    void shouldCreateValidTrainingsAndRejectInvalidOnes_whenCreatingTrainingsBatch() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        String requestBody = """
+                [
+                  {"userId": %s, "startTime": "2024-04-01T10:00:00", "endTime": "2024-04-01T11:00:00", "activityType": "RUNNING", "distance": 10.0, "averageSpeed": 10.0},
+                  {"userId": 999999, "startTime": "2024-04-01T10:00:00", "endTime": "2024-04-01T11:00:00", "activityType": "RUNNING", "distance": 10.0, "averageSpeed": 10.0},
+                  {"userId": %s, "startTime": "2024-04-02T10:00:00", "endTime": "2024-04-02T12:00:00", "activityType": "CYCLING", "distance": 40.0, "averageSpeed": 20.0}
+                ]
+                """.formatted(user1.getId(), user1.getId());
+
+        mockMvc.perform(post("/v1/trainings/batch").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[0].trainingId").isNumber())
+                .andExpect(jsonPath("$[1].status").value("REJECTED"))
+                .andExpect(jsonPath("$[1].error").value("User with id 999999 does not exist"))
+                .andExpect(jsonPath("$[2].index").value(2))
+                .andExpect(jsonPath("$[2].status").value("CREATED"));
+
+        assertEquals(2, getAllTrainings().size());
+    }
+
+    @Test
+    void shouldRejectNullTrainingAndCreateValidOne_whenCreatingTrainingsBatch() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        String requestBody = """
+                [
+                  null,
+                  {"userId": %s, "startTime": "2024-04-01T10:00:00", "endTime": "2024-04-01T11:00:00", "activityType": "RUNNING", "distance": 10.0, "averageSpeed": 10.0}
+                ]
+                """.formatted(user1.getId());
+
+        mockMvc.perform(post("/v1/trainings/batch").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("REJECTED"))
+                .andExpect(jsonPath("$[0].error").value("Training is required"))
+                .andExpect(jsonPath("$[1].status").value("CREATED"));
+
+        assertEquals(1, getAllTrainings().size());
+
+        mockMvc.perform(post("/v1/trainings/batch").contentType(MediaType.APPLICATION_NDJSON).content("null\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].error").value("Training is required"));
+    }
+
+    @Test
+    void shouldRejectTooLargeOrNonArrayBody_whenCreatingTrainingsBatch() throws Exception {
+
+        String tooLarge = "[" + "{},".repeat(TrainingProvider.MAX_BATCH_SIZE) + "{}]";
+
+        mockMvc.perform(post("/v1/trainings/batch").contentType(MediaType.APPLICATION_JSON).content(tooLarge))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/v1/trainings/batch").contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(0, getAllTrainings().size());
+    }
+
+    @Test
+    void shouldCreateTrainingsFromNdjson_whenCreatingTrainingsBatch() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        String requestBody = """
+                {"userId": %s, "startTime": "2024-04-01T10:00:00", "endTime": "2024-04-01T11:00:00", "activityType": "RUNNING", "distance": 10.0, "averageSpeed": 10.0}
+                {"userId": %s, "startTime": "2024-04-02T10:00:00", "endTime": "2024-04-02T11:00:00", "activityType": "WALKING", "distance": 5.0, "averageSpeed": 5.0}
+                """.formatted(user1.getId(), user1.getId());
+
+        mockMvc.perform(post("/v1/trainings/batch").contentType(MediaType.APPLICATION_NDJSON).content(requestBody))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[1].status").value("CREATED"))
+                .andExpect(jsonPath("$[2]").doesNotExist());
+
+        assertEquals(2, getAllTrainings().size());
+
+        mockMvc.perform(post("/v1/trainings/batch").contentType(MediaType.APPLICATION_NDJSON).content("{\"userId\": "))
+                .andExpect(status().isBadRequest());
+    }
 
-}
\ No newline at end of file
+}
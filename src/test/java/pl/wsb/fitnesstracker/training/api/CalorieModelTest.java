@@ -0,0 +1,53 @@
+package pl.wsb.fitnesstracker.training.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CalorieModelTest {
+
+    private final CalorieModel calorieModel = CalorieModel.DEFAULT;
+
+    @Test
+    void shouldUseCoefficientOfEveryActivityType() {
+        assertEquals(1050, calorieModel.caloriesBurned(ActivityType.RUNNING, 10.5));
+        assertEquals(525, calorieModel.caloriesBurned(ActivityType.CYCLING, 10.5));
+        assertEquals(630, calorieModel.caloriesBurned(ActivityType.WALKING, 10.5));
+        assertEquals(735, calorieModel.caloriesBurned(ActivityType.SWIMMING, 10.5));
+        assertEquals(840, calorieModel.caloriesBurned(ActivityType.TENNIS, 10.5));
+    }
+
+    @Test
+    void shouldTruncateCaloriesOfEveryTrainingBeforeSumming() {
+        List<Training> trainings = List.of(
+                new Training(null, new Date(), new Date(), ActivityType.CYCLING, 0.01, 1.0),
+                new Training(null, new Date(), new Date(), ActivityType.CYCLING, 0.01, 1.0),
+                new Training(null, new Date(), new Date(), ActivityType.RUNNING, 2.0, 1.0));
+        byte[] activityTypes = {1, 1, 0};
+        double[] distances = {0.01, 0.01, 2.0};
+
+        assertEquals(200, calorieModel.totalCalories(trainings));
+        assertEquals(200, calorieModel.totalCalories(activityTypes, distances, 0, 3));
+    }
+
+    @Test
+    void shouldCalculateCaloriesOfRangeOfColumns() {
+        byte[] activityTypes = {0, 1, 2, 3, 4};
+        double[] distances = {1.0, 2.0, 3.0, 4.0, 5.0};
+        int[] calories = new int[5];
+
+        calorieModel.caloriesBurned(activityTypes, distances, calories, 1, 4);
+
+        assertArrayEquals(new int[]{0, 100, 180, 280, 0}, calories);
+        assertEquals(560, calorieModel.totalCalories(activityTypes, distances, 1, 4));
+    }
+
+    @Test
+    void shouldRejectModelWithoutCoefficientOfSomeActivityType() {
+        assertThrows(IllegalArgumentException.class, () -> CalorieModel.of(Map.of(ActivityType.RUNNING, 100.0)));
+    }
+}
@@ -0,0 +1,221 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+import pl.wsb.fitnesstracker.mail.api.EmailSender;
+import pl.wsb.fitnesstracker.mail.internal.MailProperties;
+import pl.wsb.fitnesstracker.training.api.ActivityType;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.internal.UserRepository;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MonthlyTrainingSummarySchedulerTest {
+
+    private static final LocalDate PERIOD_START = LocalDate.of(2024, 4, 1);
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2024-05-15T12:00:00Z"), ZoneOffset.UTC);
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private TrainingRepository trainingRepository;
+
+    @Mock
+    private SummaryJobPartitionRepository partitionRepository;
+
+    @Mock
+    private EmailSender emailSender;
+
+    private final SummaryJobProperties properties = new SummaryJobProperties();
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private MonthlyTrainingSummaryScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        properties.setWorkers(2);
+        properties.setPartitionSize(10);
+        scheduler = new MonthlyTrainingSummaryScheduler(userRepository, trainingRepository, partitionRepository,
+                emailSender, properties, meterRegistry, new CustomizableThreadFactory("monthly-summary-"), CLOCK);
+    }
+
+    private static User createUserWithId(Long id, String firstName, String email) {
+        User user = new User(firstName, "Doe", LocalDate.of(1990, 1, 1), email);
+        user.setId(id);
+        return user;
+    }
+
+    private void stubNewPartitions(long maxUserId) {
+        when(partitionRepository.findByPeriodStartOrderByFirstUserIdAsc(PERIOD_START)).thenReturn(List.of());
+        when(userRepository.findMaxId()).thenReturn(Optional.of(maxUserId));
+        when(partitionRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(partitionRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void shouldLoadTrainingsOfAllUsersWithSingleQuery() {
+        User john = createUserWithId(1L, "John", "john@example.com");
+        User jane = createUserWithId(2L, "Jane", "jane@example.com");
+        Training training = new Training(john, new Date(), new Date(), ActivityType.RUNNING, 10.0, 8.0);
+        stubNewPartitions(2L);
+        when(userRepository.findByIdGreaterThanAndIdLessThanEqualOrderByIdAsc(eq(0L), eq(Long.MAX_VALUE), any(Limit.class)))
+                .thenReturn(List.of(john, jane));
+        when(trainingRepository.findByUserIdInAndStartTimeBetweenOrderByStartTime(eq(List.of(1L, 2L)), any(), any()))
+                .thenReturn(List.of(training));
+
+        scheduler.sendMonthlySummary();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<EmailDto>> emails = ArgumentCaptor.forClass(List.class);
+        verify(emailSender, times(1)).sendAndWait(emails.capture());
+        verify(emailSender, never()).send(any());
+        verify(trainingRepository, times(1)).findByUserIdInAndStartTimeBetweenOrderByStartTime(anyCollection(), any(), any());
+        verify(userRepository, never()).findAll();
+        assertEquals(2, emails.getValue().size());
+
+        EmailDto johnEmail = emails.getValue().get(0);
+        assertEquals("john@example.com", johnEmail.toAddress());
+        assertTrue(johnEmail.content().contains("1 treningów"));
+
+        EmailDto janeEmail = emails.getValue().get(1);
+        assertEquals("jane@example.com", janeEmail.toAddress());
+        assertTrue(janeEmail.content().contains("0 treningów"));
+    }
+
+    @Test
+    void shouldNotSendAnythingWhenThereAreNoUsers() {
+        stubNewPartitions(0L);
+        when(userRepository.findByIdGreaterThanAndIdLessThanEqualOrderByIdAsc(anyLong(), anyLong(), any(Limit.class)))
+                .thenReturn(List.of());
+
+        scheduler.sendMonthlySummary();
+
+        verifyNoInteractions(trainingRepository, emailSender);
+    }
+
+    @Test
+    void shouldSplitUsersIntoCheckpointedPartitions() {
+        stubNewPartitions(25L);
+        when(userRepository.findByIdGreaterThanAndIdLessThanEqualOrderByIdAsc(anyLong(), anyLong(), any(Limit.class)))
+                .thenAnswer(invocation -> {
+                    long after = invocation.getArgument(0);
+                    return List.of(createUserWithId(after + 1, "User", "user" + (after + 1) + "@example.com"));
+                });
+
+        scheduler.sendMonthlySummary();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<SummaryJobPartition>> created = ArgumentCaptor.forClass(List.class);
+        verify(partitionRepository).saveAll(created.capture());
+        List<SummaryJobPartition> partitions = created.getValue();
+        assertEquals(List.of(1L, 11L, 21L), partitions.stream().map(SummaryJobPartition::getFirstUserId).toList());
+        assertEquals(List.of(10L, 20L, Long.MAX_VALUE), partitions.stream().map(SummaryJobPartition::getLastUserId).toList());
+        assertTrue(partitions.stream().allMatch(SummaryJobPartition::isCompleted));
+        assertTrue(partitions.stream().allMatch(partition -> partition.getEmailsSent() == 1));
+        verify(emailSender, times(3)).sendAndWait(argThat(emails -> emails.size() == 1));
+        assertEquals(3.0, meterRegistry.get("summary.job.emails").counter().count());
+        assertEquals(3, meterRegistry.get("summary.job.partition.duration").timer().count());
+        assertEquals(0.0, meterRegistry.get("summary.job.partitions.remaining").gauge().value());
+    }
+
+    @Test
+    void shouldResumePartitionsFromLastCheckpoint() {
+        SummaryJobPartition completed = new SummaryJobPartition(PERIOD_START, 1L, 10L);
+        completed.complete(Instant.EPOCH);
+        SummaryJobPartition started = new SummaryJobPartition(PERIOD_START, 11L, Long.MAX_VALUE);
+        started.recordProgress(15L, 5);
+        when(partitionRepository.findByPeriodStartOrderByFirstUserIdAsc(PERIOD_START)).thenReturn(List.of(completed, started));
+        when(partitionRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(userRepository.findByIdGreaterThanAndIdLessThanEqualOrderByIdAsc(eq(15L), eq(Long.MAX_VALUE), any(Limit.class)))
+                .thenReturn(List.of(createUserWithId(16L, "John", "john@example.com")));
+
+        scheduler.sendMonthlySummary();
+
+        verify(userRepository, times(1)).findByIdGreaterThanAndIdLessThanEqualOrderByIdAsc(anyLong(), anyLong(), any(Limit.class));
+        verify(userRepository, never()).findMaxId();
+        verify(emailSender, times(1)).sendAndWait(argThat(emails -> emails.size() == 1));
+        assertTrue(started.isCompleted());
+        assertEquals(16L, started.getProcessedUpTo());
+        assertEquals(6, started.getEmailsSent());
+    }
+
+    @Test
+    void shouldNotCheckpointChunkWhoseEmailsWereNotDelivered() {
+        SummaryJobPartition started = new SummaryJobPartition(PERIOD_START, 1L, Long.MAX_VALUE);
+        started.recordProgress(15L, 5);
+        when(partitionRepository.findByPeriodStartOrderByFirstUserIdAsc(PERIOD_START)).thenReturn(List.of(started));
+        when(userRepository.findByIdGreaterThanAndIdLessThanEqualOrderByIdAsc(eq(15L), eq(Long.MAX_VALUE), any(Limit.class)))
+                .thenReturn(List.of(createUserWithId(16L, "John", "john@example.com")));
+        doThrow(new IllegalStateException("Not all of 1 emails were delivered")).when(emailSender).sendAndWait(anyList());
+
+        scheduler.sendMonthlySummary();
+
+        verify(partitionRepository, never()).save(any());
+        assertFalse(started.isCompleted());
+        assertEquals(15L, started.getProcessedUpTo());
+        assertEquals(5, started.getEmailsSent());
+        assertEquals(0.0, meterRegistry.get("summary.job.emails").counter().count());
+    }
+
+    @Test
+    void shouldNotWaitForMoreEmailsThanMailQueueHoldsByDefault() {
+        SummaryJobProperties defaults = new SummaryJobProperties();
+
+        assertTrue(defaults.getWorkers() * defaults.getChunkSize() <= new MailProperties().getQueue().getCapacity());
+    }
+
+    @Test
+    void shouldNotSendSummariesOfMonthAlreadySent() {
+        SummaryJobPartition completed = new SummaryJobPartition(PERIOD_START, 1L, Long.MAX_VALUE);
+        completed.complete(Instant.EPOCH);
+        when(partitionRepository.findByPeriodStartOrderByFirstUserIdAsc(PERIOD_START)).thenReturn(List.of(completed));
+
+        scheduler.sendMonthlySummary();
+
+        verifyNoInteractions(userRepository, trainingRepository, emailSender);
+    }
+
+    @Test
+    void shouldLeaveFailedPartitionForNextRun() {
+        stubNewPartitions(15L);
+        when(userRepository.findByIdGreaterThanAndIdLessThanEqualOrderByIdAsc(eq(0L), eq(10L), any(Limit.class)))
+                .thenThrow(new IllegalStateException("Connection lost"));
+        when(userRepository.findByIdGreaterThanAndIdLessThanEqualOrderByIdAsc(eq(10L), eq(Long.MAX_VALUE), any(Limit.class)))
+                .thenReturn(List.of());
+
+        scheduler.sendMonthlySummary();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<SummaryJobPartition>> created = ArgumentCaptor.forClass(List.class);
+        verify(partitionRepository).saveAll(created.capture());
+        assertFalse(created.getValue().get(0).isCompleted());
+        assertTrue(created.getValue().get(1).isCompleted());
+    }
+}
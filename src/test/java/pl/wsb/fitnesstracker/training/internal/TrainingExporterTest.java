@@ -0,0 +1,53 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import pl.wsb.fitnesstracker.training.api.ActivityType;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserProvider;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TrainingExporterTest {
+
+    @Test
+    void shouldFlushNdjsonExportOnceAtTheEnd() throws Exception {
+        User user = new User("John", "Doe", LocalDate.of(1990, 1, 1), "john@example.com");
+        user.setId(1L);
+        TrainingRepository trainingRepository = mock(TrainingRepository.class);
+        when(trainingRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(
+                new Training(user, new Date(0), new Date(3_600_000), ActivityType.RUNNING, 10.0, 10.0),
+                new Training(user, new Date(0), new Date(3_600_000), ActivityType.CYCLING, 20.0, 20.0),
+                new Training(user, new Date(0), new Date(3_600_000), ActivityType.WALKING, 5.0, 5.0)));
+        TrainingExporter exporter = new TrainingExporter(trainingRepository,
+                new TrainingMapper(mock(UserProvider.class)),
+                mock(EntityManager.class),
+                new ObjectMapper());
+        FlushCountingOutputStream output = new FlushCountingOutputStream();
+
+        exporter.export(TrainingExportFormat.NDJSON, output);
+
+        assertEquals(3, output.toString(StandardCharsets.UTF_8).lines().count());
+        assertEquals(1, output.flushes);
+    }
+
+    private static final class FlushCountingOutputStream extends ByteArrayOutputStream {
+
+        private int flushes;
+
+        @Override
+        public void flush() {
+            flushes++;
+        }
+    }
+}
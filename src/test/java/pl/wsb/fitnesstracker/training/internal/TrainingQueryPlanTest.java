@@ -0,0 +1,70 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.wsb.fitnesstracker.QueryPlans;
+import pl.wsb.fitnesstracker.training.api.ActivityType;
+import pl.wsb.fitnesstracker.training.api.CalorieModel;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+
+import static pl.wsb.fitnesstracker.QueryPlans.assertUsesIndexes;
+
+/**
+ * Verifies that training queries are served by the indexes of the schema migrations.
+ * {@link TrainingRepository#findAll()}, {@link TrainingRepository#streamAllByOrderByIdAsc()} and
+ * {@link TrainingRepository#sumTotalsByUserIdAndActivityType(CalorieModel)} read every training by design and are not checked.
+ */
+@DataJpaTest(properties = QueryPlans.RECORDING_PROPERTY)
+class TrainingQueryPlanTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TrainingRepository trainingRepository;
+
+    @Autowired
+    private SummaryJobPartitionRepository partitionRepository;
+
+    @Test
+    void shouldUseIndexesForUserQueries() {
+        User user = entityManager.persistAndFlush(new User("John", "Doe", LocalDate.of(1990, 1, 1), "john@example.com"));
+        Date now = new Date();
+
+        assertUsesIndexes(jdbcTemplate, () -> trainingRepository.findByUserId(1L));
+        assertUsesIndexes(jdbcTemplate, () -> trainingRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(1L, 0L, Limit.of(10)));
+        assertUsesIndexes(jdbcTemplate, () -> trainingRepository.sumTotalsByUserId(1L, CalorieModel.DEFAULT));
+        assertUsesIndexes(jdbcTemplate, () -> trainingRepository.findByUserAndStartTimeBetween(user, now, now));
+        assertUsesIndexes(jdbcTemplate, () -> trainingRepository.countByUserAndStartTimeBetween(user, now, now));
+        assertUsesIndexes(jdbcTemplate, () -> trainingRepository.findByUserIdInAndStartTimeBetweenOrderByStartTime(List.of(1L, 2L), now, now));
+        assertUsesIndexes(jdbcTemplate, () -> trainingRepository.deleteByUser(user));
+    }
+
+    @Test
+    void shouldUseIndexesForFilterQueries() {
+        Date now = new Date();
+
+        assertUsesIndexes(jdbcTemplate, () -> trainingRepository.findById(1L));
+        assertUsesIndexes(jdbcTemplate, () -> trainingRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(10)));
+        assertUsesIndexes(jdbcTemplate, () -> trainingRepository.findByEndTimeAfter(now));
+        assertUsesIndexes(jdbcTemplate, () -> trainingRepository.findByEndTimeAfterAndIdGreaterThanOrderByIdAsc(now, 0L, Limit.of(10)));
+        assertUsesIndexes(jdbcTemplate, () -> trainingRepository.findByActivityType(ActivityType.RUNNING));
+        assertUsesIndexes(jdbcTemplate, () -> trainingRepository.findByActivityTypeAndIdGreaterThanOrderByIdAsc(ActivityType.RUNNING, 0L, Limit.of(10)));
+    }
+
+    @Test
+    void shouldUseIndexesForSummaryJobQueries() {
+        assertUsesIndexes(jdbcTemplate, () -> partitionRepository.findByPeriodStartOrderByFirstUserIdAsc(LocalDate.of(2024, 1, 1)));
+    }
+}
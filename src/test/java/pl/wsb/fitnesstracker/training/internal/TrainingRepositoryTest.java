@@ -0,0 +1,160 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import pl.wsb.fitnesstracker.training.api.ActivityTotals;
+import pl.wsb.fitnesstracker.training.api.ActivityType;
+import pl.wsb.fitnesstracker.training.api.CalorieModel;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.api.TrainingTotals;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies the number of SQL statements run by training queries and inserts, and the training aggregates.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class TrainingRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TrainingRepository trainingRepository;
+
+    private final TrainingMapper trainingMapper = new TrainingMapper(null);
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 3; i++) {
+            User user = entityManager.persist(new User("John" + i, "Doe", LocalDate.of(1990, 1, 1), "john" + i + "@example.com"));
+            entityManager.persist(new Training(user, new Date(0), new Date(1000), ActivityType.RUNNING, 10.0, 8.0));
+            entityManager.persist(new Training(user, new Date(0), new Date(1000), ActivityType.CYCLING, 20.0, 15.0));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    private List<UserTrainingRes> mapWithStatementCount(Supplier<List<Training>> query, long expectedStatements) {
+        List<UserTrainingRes> result = query.get().stream()
+                .map(trainingMapper::toUserTrainingRes)
+                .toList();
+        assertEquals(expectedStatements, statistics.getPrepareStatementCount());
+        return result;
+    }
+
+    @Test
+    void shouldLoadUsersOfTrainingsByActivityTypeInSingleStatement() {
+        List<UserTrainingRes> result = mapWithStatementCount(
+                () -> trainingRepository.findByActivityType(ActivityType.RUNNING), 1);
+
+        assertEquals(3, result.size());
+        assertTrue(result.stream().allMatch(training -> training.getUser().getEmail().endsWith("@example.com")));
+    }
+
+    @Test
+    void shouldLoadUsersOfTrainingsFinishedAfterTimeInSingleStatement() {
+        List<UserTrainingRes> result = mapWithStatementCount(
+                () -> trainingRepository.findByEndTimeAfter(new Date(500)), 1);
+
+        assertEquals(6, result.size());
+    }
+
+    @Test
+    void shouldLoadUsersOfTrainingsPageInSingleStatement() {
+        List<UserTrainingRes> result = mapWithStatementCount(
+                () -> trainingRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(4)), 1);
+
+        assertEquals(4, result.size());
+        assertEquals(2, result.stream().map(training -> training.getUser().getId()).distinct().count());
+    }
+
+    @Test
+    void shouldLoadUsersOfAllTrainingsInSingleStatement() {
+        List<UserTrainingRes> result = mapWithStatementCount(trainingRepository::findAll, 1);
+
+        assertEquals(6, result.size());
+    }
+
+    @Test
+    void shouldSumTotalsOfUserInSingleStatementWithoutLoadingTrainings() {
+        User user = entityManager.persist(new User("Jane", "Doe", LocalDate.of(1990, 1, 1), "jane@example.com"));
+        List<Training> trainings = List.of(
+                new Training(user, new Date(0), new Date(1000), ActivityType.RUNNING, 10.55, 8.0),
+                new Training(user, new Date(0), new Date(1000), ActivityType.CYCLING, 0.01, 15.0),
+                new Training(user, new Date(0), new Date(1000), ActivityType.WALKING, 3.33, 5.0),
+                new Training(user, new Date(0), new Date(1000), ActivityType.SWIMMING, 1.5, 2.0),
+                new Training(user, new Date(0), new Date(1000), ActivityType.TENNIS, 2.0, 4.0));
+        trainings.forEach(entityManager::persist);
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        TrainingTotals totals = trainingRepository.sumTotalsByUserId(user.getId(), CalorieModel.DEFAULT);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(5, totals.trainings());
+        assertEquals(trainings.stream().mapToDouble(Training::getDistance).sum(), totals.distance(), 1e-9);
+        assertEquals(CalorieModel.DEFAULT.totalCalories(trainings), totals.calories());
+    }
+
+    @Test
+    void shouldSumTotalsOfEveryUserPerActivityType() {
+        List<ActivityTotals> totals = trainingRepository.sumTotalsByUserIdAndActivityType(CalorieModel.DEFAULT);
+
+        assertEquals(6, totals.size());
+        assertTrue(totals.stream()
+                .filter(activityTotals -> activityTotals.activityType() == ActivityType.RUNNING)
+                .allMatch(activityTotals -> activityTotals.trainings() == 1
+                        && activityTotals.distance() == 10.0
+                        && activityTotals.calories() == 1000));
+        assertTrue(totals.stream()
+                .filter(activityTotals -> activityTotals.activityType() == ActivityType.CYCLING)
+                .allMatch(activityTotals -> activityTotals.distance() == 20.0 && activityTotals.calories() == 1000));
+    }
+
+    @Test
+    void shouldReturnZeroTotalsForUserWithoutTrainings() {
+        assertEquals(new TrainingTotals(0, 0.0, 0), trainingRepository.sumTotalsByUserId(-1L, CalorieModel.DEFAULT));
+    }
+
+    @Test
+    void shouldInsertTrainingsInJdbcBatches() {
+        User user = entityManager.find(User.class, trainingRepository.findAll().get(0).getUser().getId());
+        List<Training> trainings = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            trainings.add(new Training(user, new Date(0), new Date(1000), ActivityType.WALKING, 5.0, 5.0));
+        }
+        statistics.clear();
+
+        trainingRepository.saveAll(trainings);
+        entityManager.flush();
+
+        assertEquals(120, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 6,
+                "expected 3 sequence calls and 3 batches, got " + statistics.getPrepareStatementCount() + " statements");
+    }
+}
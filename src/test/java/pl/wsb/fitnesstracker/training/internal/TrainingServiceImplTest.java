@@ -0,0 +1,138 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import pl.wsb.fitnesstracker.training.api.ActivityType;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.api.TrainingNotFoundException;
+import pl.wsb.fitnesstracker.training.api.TrainingProvider;
+import pl.wsb.fitnesstracker.training.api.TrainingsChangedEvent;
+import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.internal.UserRepository;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TrainingServiceImplTest {
+
+    @Mock
+    private TrainingRepository trainingRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private TrainingServiceImpl trainingService;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        testUser = new User("John", "Doe", LocalDate.of(1990, 1, 1), "john@example.com");
+        testUser.setId(1L);
+    }
+
+    @Test
+    void shouldPublishChangeWhenCreatingTraining() {
+        Training training = new Training(testUser, new Date(), new Date(), ActivityType.RUNNING, 10.0, 8.0);
+        when(trainingRepository.save(training)).thenReturn(training);
+
+        Training result = trainingService.createTraining(training);
+
+        assertSame(training, result);
+        ArgumentCaptor<TrainingsChangedEvent> event = ArgumentCaptor.forClass(TrainingsChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        TrainingsChangedEvent.Change change = event.getValue().changes().get(0);
+        assertNull(change.before());
+        assertEquals(1L, change.after().userId());
+        assertEquals(ActivityType.RUNNING, change.after().activityType());
+        assertEquals(10.0, change.after().distance());
+    }
+
+    @Test
+    void shouldPublishStateBeforeAndAfterWhenUpdatingTraining() {
+        Training training = new Training(testUser, new Date(), new Date(), ActivityType.RUNNING, 10.0, 8.0);
+        TrainingDTO update = new TrainingDTO(null, null, null, ActivityType.CYCLING, 20.0, 15.0);
+        when(trainingRepository.findById(5L)).thenReturn(Optional.of(training));
+        when(trainingRepository.save(training)).thenReturn(training);
+
+        trainingService.updateTraining(5L, update);
+
+        ArgumentCaptor<TrainingsChangedEvent> event = ArgumentCaptor.forClass(TrainingsChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        TrainingsChangedEvent.Change change = event.getValue().changes().get(0);
+        assertEquals(ActivityType.RUNNING, change.before().activityType());
+        assertEquals(10.0, change.before().distance());
+        assertEquals(ActivityType.CYCLING, change.after().activityType());
+        assertEquals(20.0, change.after().distance());
+    }
+
+    @Test
+    void shouldNotPublishChangeWhenUpdatedTrainingDoesNotExist() {
+        when(trainingRepository.findById(5L)).thenReturn(Optional.empty());
+
+        assertThrows(TrainingNotFoundException.class,
+                () -> trainingService.updateTraining(5L, new TrainingDTO()));
+        verify(trainingRepository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void shouldResolveUsersOnceAndPublishSingleEventWhenCreatingTrainings() {
+        Date start = new Date(0);
+        Date end = new Date(3_600_000);
+        List<TrainingDTO> trainings = List.of(
+                new TrainingDTO(1L, start, end, ActivityType.RUNNING, 10.0, 10.0),
+                new TrainingDTO(2L, start, end, ActivityType.RUNNING, 5.0, 5.0),
+                new TrainingDTO(1L, end, start, ActivityType.RUNNING, 5.0, 5.0),
+                new TrainingDTO(1L, start, end, ActivityType.CYCLING, 20.0, 20.0));
+        when(userRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(testUser));
+        when(trainingRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Training> saved = invocation.getArgument(0);
+            for (int i = 0; i < saved.size(); i++) {
+                saved.get(i).setId(100L + i);
+            }
+            return saved;
+        });
+
+        List<TrainingBatchResult> results = trainingService.createTrainings(trainings);
+
+        assertEquals(List.of(
+                TrainingBatchResult.created(0, 100L),
+                TrainingBatchResult.rejected(1, "User with id 2 does not exist"),
+                TrainingBatchResult.rejected(2, "End time must not be before start time"),
+                TrainingBatchResult.created(3, 101L)), results);
+        verify(userRepository, times(1)).findAllById(any());
+        verify(trainingRepository, never()).save(any());
+        ArgumentCaptor<TrainingsChangedEvent> event = ArgumentCaptor.forClass(TrainingsChangedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(event.capture());
+        assertEquals(2, event.getValue().changes().size());
+    }
+
+    @Test
+    void shouldRejectTooLargeBatchOfTrainings() {
+        List<TrainingDTO> trainings = Collections.nCopies(TrainingProvider.MAX_BATCH_SIZE + 1, new TrainingDTO());
+
+        assertThrows(IllegalArgumentException.class, () -> trainingService.createTrainings(trainings));
+        verifyNoInteractions(trainingRepository, userRepository, eventPublisher);
+    }
+}
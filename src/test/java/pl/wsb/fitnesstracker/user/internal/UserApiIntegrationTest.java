@@ -17,8 +17,10 @@ import static java.time.format.DateTimeFormatter.ISO_DATE;
 import static java.util.UUID.randomUUID;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.log;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -93,6 +95,36 @@ class UserApiIntegrationTest extends IntegrationTestBase {
 
     }
 
+    @Test
+    void shouldReturnNotModified_whenGettingUnchangedUserWithItsETag() throws Exception {
+        User user1 = existingUser(generateUser());
+
+        String eTag = mockMvc.perform(get("/v1/users/{id}", user1.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"0\""))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/v1/users/{id}", user1.getId()).header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(put("/v1/users/{userId}", user1.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                "firstName": "Updated",
+                                "lastName": "%s",
+                                "birthdate": "%s",
+                                "email": "%s"
+                                }
+                                """.formatted(user1.getLastName(), ISO_DATE.format(user1.getBirthdate()), user1.getEmail())))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/v1/users/{id}", user1.getId()).header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(eTag)))
+                .andExpect(jsonPath("$.firstName").value("Updated"));
+    }
+
     @Test
     void shouldReturnDetailsAboutUser_whenGettingUserByEmail() throws Exception {
         User user1 = existingUser(generateUser());
@@ -25,6 +25,7 @@ import java.util.Optional;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -117,12 +118,14 @@ class UserControllerTest {
 
     @Test
     void shouldReturnUserById() throws Exception {
+        when(userProvider.getUserVersion(1L)).thenReturn(Optional.of(3L));
         when(userProvider.getUser(1L)).thenReturn(Optional.of(testUser));
         when(userMapper.toDto(any(User.class))).thenReturn(testUserDto);
 
         mockMvc.perform(get("/v1/users/1"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string("ETag", "\"3\""))
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.firstName").value("John"));
 
@@ -130,9 +133,22 @@ class UserControllerTest {
         verify(userMapper).toDto(any(User.class));
     }
 
+    @Test
+    void shouldReturnNotModifiedWhenUserETagMatches() throws Exception {
+        when(userProvider.getUserVersion(1L)).thenReturn(Optional.of(3L));
+
+        mockMvc.perform(get("/v1/users/1").header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(content().string(""));
+
+        verify(userProvider, never()).getUser(anyLong());
+        verify(userMapper, never()).toDto(any(User.class));
+    }
+
     @Test
     void shouldThrowExceptionWhenUserNotFoundById() throws Exception {
-        when(userProvider.getUser(999L)).thenReturn(Optional.empty());
+        when(userProvider.getUserVersion(999L)).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/v1/users/999"))
                 .andExpect(status().isNotFound())
@@ -140,7 +156,7 @@ class UserControllerTest {
                 .andExpect(result -> assertEquals("User with ID 999 not found", 
                         result.getResolvedException().getMessage()));
 
-        verify(userProvider).getUser(999L);
+        verify(userProvider, never()).getUser(anyLong());
         verify(userMapper, never()).toDto(any(User.class));
     }
 
@@ -180,7 +196,7 @@ class UserControllerTest {
     @Test
     void shouldReturnUsersByEmail() throws Exception {
         List<User> users = Arrays.asList(testUser);
-        when(userProvider.getUsersByPartOfEmail("john")).thenReturn(users);
+        when(userProvider.getUsersByPartOfEmail("john", 0, 20)).thenReturn(users);
         when(userMapper.toIdAndEmail(any(User.class))).thenReturn(testUserIdEmail);
 
         mockMvc.perform(get("/v1/users/email")
@@ -190,10 +206,34 @@ class UserControllerTest {
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[0].email").value("john@example.com"));
 
-        verify(userProvider).getUsersByPartOfEmail("john");
+        verify(userProvider).getUsersByPartOfEmail("john", 0, 20);
         verify(userMapper).toIdAndEmail(any(User.class));
     }
 
+    @Test
+    void shouldPassPageToEmailSearch() throws Exception {
+        when(userProvider.getUsersByPartOfEmail("john", 2, 5)).thenReturn(List.of());
+
+        mockMvc.perform(get("/v1/users/email")
+                        .param("email", "john")
+                        .param("page", "2")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+
+        verify(userProvider).getUsersByPartOfEmail("john", 2, 5);
+    }
+
+    @Test
+    void shouldRejectTooLargeEmailSearchPage() throws Exception {
+        mockMvc.perform(get("/v1/users/email")
+                        .param("email", "john")
+                        .param("size", "1000"))
+                .andExpect(status().isBadRequest());
+
+        verify(userProvider, never()).getUsersByPartOfEmail(any(), anyInt(), anyInt());
+    }
+
     @Test
     void shouldReturnUsersOlderThan() throws Exception {
         List<User> users = Arrays.asList(testUser);
@@ -0,0 +1,52 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserEmailCacheTest {
+
+    @Test
+    void shouldReturnCachedId() {
+        UserEmailCache cache = new UserEmailCache(10);
+
+        cache.put("john@example.com", 1L);
+
+        assertEquals(Optional.of(1L), cache.get("john@example.com"));
+        assertTrue(cache.get("jane@example.com").isEmpty());
+    }
+
+    @Test
+    void shouldEvictEntry() {
+        UserEmailCache cache = new UserEmailCache(10);
+        cache.put("john@example.com", 1L);
+
+        cache.evict("john@example.com");
+
+        assertTrue(cache.get("john@example.com").isEmpty());
+    }
+
+    @Test
+    void shouldClearWhenCapacityIsReached() {
+        UserEmailCache cache = new UserEmailCache(2);
+        cache.put("john@example.com", 1L);
+        cache.put("jane@example.com", 2L);
+
+        cache.put("alice@example.com", 3L);
+
+        assertTrue(cache.get("john@example.com").isEmpty());
+        assertTrue(cache.get("jane@example.com").isEmpty());
+        assertEquals(Optional.of(3L), cache.get("alice@example.com"));
+    }
+
+    @Test
+    void shouldNotCacheWhenDisabled() {
+        UserEmailCache cache = new UserEmailCache(0);
+
+        cache.put("john@example.com", 1L);
+
+        assertTrue(cache.get("john@example.com").isEmpty());
+    }
+}
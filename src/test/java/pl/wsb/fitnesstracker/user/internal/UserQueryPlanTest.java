@@ -0,0 +1,37 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.wsb.fitnesstracker.QueryPlans;
+
+import java.time.LocalDate;
+
+import static pl.wsb.fitnesstracker.QueryPlans.assertUsesIndexes;
+
+/**
+ * Verifies that user queries are served by the indexes of the schema migrations.
+ * {@link UserRepository#findByEmailContainingIgnoreCase} matches a fragment anywhere in the email,
+ * which no B-tree index can serve, and is not checked.
+ */
+@DataJpaTest(properties = QueryPlans.RECORDING_PROPERTY)
+class UserQueryPlanTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void shouldUseIndexesForUserQueries() {
+        assertUsesIndexes(jdbcTemplate, () -> userRepository.findById(1L));
+        assertUsesIndexes(jdbcTemplate, () -> userRepository.findByEmail("john@example.com"));
+        assertUsesIndexes(jdbcTemplate, () -> userRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(10)));
+        assertUsesIndexes(jdbcTemplate, () -> userRepository.findByIdGreaterThanAndIdLessThanEqualOrderByIdAsc(0L, 100L, Limit.of(10)));
+        assertUsesIndexes(jdbcTemplate, () -> userRepository.findMaxId());
+        assertUsesIndexes(jdbcTemplate, () -> userRepository.findByBirthdateBefore(LocalDate.of(1990, 1, 1)));
+    }
+}
@@ -5,6 +5,8 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
 import pl.wsb.fitnesstracker.user.api.User;
 
@@ -144,4 +146,27 @@ class UserRepositoryTest {
         // Verify
         assertTrue(result.isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldFindPageOfUsersByPartOfEmail() {
+        // Execute
+        List<User> firstPage = userRepository.findByEmailContainingIgnoreCase("E", PageRequest.of(0, 2, Sort.by("id")));
+        List<User> secondPage = userRepository.findByEmailContainingIgnoreCase("E", PageRequest.of(1, 2, Sort.by("id")));
+
+        // Verify
+        assertEquals(2, firstPage.size());
+        assertEquals("john.doe@example.com", firstPage.get(0).getEmail());
+        assertEquals("jane.smith@example.org", firstPage.get(1).getEmail());
+        assertEquals(1, secondPage.size());
+        assertEquals("alice@test.com", secondPage.get(0).getEmail());
+    }
+
+    @Test
+    void shouldMatchWildcardCharactersLiterallyInPartOfEmail() {
+        // Execute
+        List<User> result = userRepository.findByPartOfEmail("%");
+
+        // Verify
+        assertTrue(result.isEmpty());
+    }
+}
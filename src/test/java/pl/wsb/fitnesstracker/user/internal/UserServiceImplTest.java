@@ -7,7 +7,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserDeletedEvent;
 import pl.wsb.fitnesstracker.training.internal.TrainingRepository;
 
 import java.time.LocalDate;
@@ -28,6 +30,12 @@ class UserServiceImplTest {
     @Mock
     private TrainingRepository trainingRepository;
 
+    @Mock
+    private UserEmailCache userEmailCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -99,6 +107,33 @@ class UserServiceImplTest {
         assertTrue(result.isPresent());
         assertEquals(testUser, result.get());
         verify(userRepository).findByEmail("john@example.com");
+        verify(userEmailCache).put("john@example.com", 1L);
+    }
+
+    @Test
+    void shouldGetUserByEmailFromCachedId() {
+        when(userEmailCache.get("john@example.com")).thenReturn(Optional.of(1L));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+
+        Optional<User> result = userService.getUserByEmail("john@example.com");
+
+        assertTrue(result.isPresent());
+        assertEquals(testUser, result.get());
+        verify(userRepository, never()).findByEmail(any());
+    }
+
+    @Test
+    void shouldFallBackToEmailQueryWhenCachedIdIsStale() {
+        when(userEmailCache.get("jane@example.com")).thenReturn(Optional.of(1L));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.findByEmail("jane@example.com")).thenReturn(Optional.of(testUser2));
+
+        Optional<User> result = userService.getUserByEmail("jane@example.com");
+
+        assertTrue(result.isPresent());
+        assertEquals(testUser2, result.get());
+        verify(userEmailCache).evict("jane@example.com");
+        verify(userEmailCache).put("jane@example.com", 2L);
     }
 
     @Test
@@ -136,6 +171,8 @@ class UserServiceImplTest {
         verify(userRepository).findById(1L);
         verify(trainingRepository).deleteByUser(testUser);
         verify(userRepository).deleteById(1L);
+        verify(userEmailCache).evict("john@example.com");
+        verify(eventPublisher).publishEvent(new UserDeletedEvent(1L));
     }
 
     @Test
@@ -162,6 +199,7 @@ class UserServiceImplTest {
         assertEquals("UpdatedLastName", testUser.getLastName());
         assertEquals("updated@example.com", testUser.getEmail());
         assertEquals(LocalDate.of(1990, 6, 15), testUser.getBirthdate());
+        verify(userEmailCache).evict("john@example.com");
     }
 
     @Test